@@ -0,0 +1,78 @@
+package com.example.silea.config;
+
+import com.example.silea.service.CatalogVersionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Conditional GET for the public catalog: every response under /api/products and /api/categories
+ * carries the catalog version as ETag, and a matching If-None-Match is answered with 304 before
+ * any controller, query or serialization runs. Gzip-encoded snapshots replace the ETag with its
+ * "-gz" variant, which is matched here as well.
+ */
+@Component
+public class CatalogETagFilter extends OncePerRequestFilter {
+
+    private final CatalogVersionService catalogVersionService;
+
+    public CatalogETagFilter(CatalogVersionService catalogVersionService) {
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean catalog = path.equals("/api/products") || path.startsWith("/api/products/")
+                || path.equals("/api/categories") || path.startsWith("/api/categories/");
+        // Admin views and suggestions (ranked by sales) do not depend on the catalog version alone
+        boolean excluded = path.startsWith("/api/products/admin") || path.startsWith("/api/products/suggest");
+        return !catalog || excluded;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // Read the version before the content is produced: content can only be newer than its tag
+        String etag = catalogVersionService.currentETag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // Let browsers and proxies store responses, but always revalidate
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        String gzipETag = CatalogVersionService.gzipETag(etag);
+        if (matches(ifNoneMatch, gzipETag)) {
+            response.setHeader(HttpHeaders.ETAG, gzipETag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.silea.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (outbox dispatcher)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
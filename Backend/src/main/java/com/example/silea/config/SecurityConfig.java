@@ -48,7 +48,8 @@ public class SecurityConfig {
                 // Actuator - health check endpoint
                 .requestMatchers("/actuator/health").permitAll()
                 
-                // Products - GET is public
+                // Products - GET is public, except the admin reads (stock, stats, unavailable)
+                .requestMatchers(HttpMethod.GET, "/api/products/admin/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.GET, "/api/products").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
                 
@@ -106,6 +107,8 @@ public class SecurityConfig {
                 // Tracking admin operations
                 .requestMatchers("/api/tracking/admin/**").hasRole("ADMIN")
                 
+                // Live dashboard feed - authorized by the single-use ticket from POST /api/admin/dashboard/feed/ticket
+                .requestMatchers(HttpMethod.GET, "/api/admin/dashboard/feed").permitAll()
                 // All other /api/admin/** endpoints require ADMIN role
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 
@@ -123,6 +126,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("Idempotent-Replayed"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -6,7 +6,9 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import com.example.silea.service.CartEvaluation;
 import com.example.silea.service.CartService;
+import com.example.silea.service.PriceQuoteService;
 import com.example.silea.service.ProductService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,7 +18,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/cart")
@@ -25,10 +26,12 @@ public class CartController {
 
     private final CartService cartService;
     private final ProductService productService;
+    private final PriceQuoteService priceQuoteService;
 
-    public CartController(CartService cartService, ProductService productService) {
+    public CartController(CartService cartService, ProductService productService, PriceQuoteService priceQuoteService) {
         this.cartService = cartService;
         this.productService = productService;
+        this.priceQuoteService = priceQuoteService;
     }
 
     /**
@@ -45,7 +48,7 @@ public class CartController {
     public ResponseEntity<?> calculateTotal(@RequestBody List<CartItemRequest> items) {
         try {
             List<CartService.CartItem> cartItems = convertToCartItems(items);
-            BigDecimal total = cartService.calculateTotal(cartItems);
+            BigDecimal total = cartService.evaluate(cartItems, null).getSubtotal();
 
             Map<String, Object> response = new HashMap<>();
             response.put("total", total);
@@ -88,17 +91,21 @@ public class CartController {
      * Get cart summary
      */
     @PostMapping("/summary")
-    @Operation(summary = "Get cart summary", description = "Retrieves a detailed summary of the cart, including total, item count, and individual item details")
+    @Operation(summary = "Get cart summary", description = "Retrieves a summary of the cart (subtotal, shipping for the optional city, tax, total). Orderable carts also get a signed quoteToken to send with POST /api/orders, which then reuses these prices while the catalog is unchanged")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved cart summary",
-            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"subtotal\": 150.75, \"totalItems\": 2, \"items\": [{\"productId\": 1, \"productName\": \"Product A\", \"quantity\": 1, \"unitPrice\": 75.50, \"itemTotal\": 75.50}, {\"productId\": 2, \"productName\": \"Product B\", \"quantity\": 1, \"unitPrice\": 75.25, \"itemTotal\": 75.25}]}"))),
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"subtotal\": 150.75, \"shipping\": 35, \"tax\": 30.15, \"total\": 215.90, \"totalItems\": 2, \"quoteToken\": \"AQAAAZ...Qw.3kXn...\", \"quoteExpiresAt\": \"2025-01-01T12:30:00Z\"}"))),
         @ApiResponse(responseCode = "500", description = "Error getting cart summary",
             content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\": \"Error getting cart summary: Internal Server Error\"}")))
     })
-    public ResponseEntity<?> getCartSummary(@RequestBody List<CartItemRequest> items) {
+    public ResponseEntity<?> getCartSummary(@RequestBody List<CartItemRequest> items,
+                                            @RequestParam(required = false) String city) {
         try {
+            PriceQuoteService.Stamp stamp = priceQuoteService.stamp();
             List<CartService.CartItem> cartItems = convertToCartItems(items);
-            CartService.CartSummary summary = cartService.getCartSummary(cartItems);
+            CartEvaluation evaluation = cartService.evaluate(cartItems, city);
+            CartService.CartSummary summary = CartService.CartSummary.of(evaluation)
+                    .withQuote(priceQuoteService.issue(evaluation, stamp));
 
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
@@ -120,7 +127,8 @@ public class CartController {
     public ResponseEntity<?> checkMinimumOrder(@RequestBody MinimumOrderRequest request) {
         try {
             List<CartService.CartItem> cartItems = convertToCartItems(request.getItems());
-            boolean hasMinimum = cartService.hasMinimumOrderValue(cartItems, request.getMinimumValue());
+            boolean hasMinimum = cartService.evaluate(cartItems, null).getSubtotal()
+                    .compareTo(request.getMinimumValue()) >= 0;
 
             Map<String, Object> response = new HashMap<>();
             response.put("hasMinimum", hasMinimum);
@@ -173,23 +181,25 @@ public class CartController {
      * Get shipping cost estimate
      */
     @PostMapping("/shipping")
-    @Operation(summary = "Get shipping cost estimate", description = "Calculates the estimated shipping cost for the items in the cart")
+    @Operation(summary = "Get shipping cost estimate", description = "Calculates the shipping cost for the items in the cart with the same rules as checkout (free from 700 MAD or 10L of oil); pass city for the city-specific rate")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Successfully calculated shipping cost",
-            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"subtotal\": 150.75, \"shipping\": 30.00, \"freeShippingThreshold\": 200.00}"))),
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"subtotal\": 150.75, \"shipping\": 30, \"freeShipping\": false, \"shippingAvailable\": true, \"freeShippingThreshold\": 700}"))),
         @ApiResponse(responseCode = "500", description = "Error calculating shipping",
             content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\": \"Error calculating shipping: Internal Server Error\"}")))
     })
-    public ResponseEntity<?> calculateShipping(@RequestBody List<CartItemRequest> items) {
+    public ResponseEntity<?> calculateShipping(@RequestBody List<CartItemRequest> items,
+                                               @RequestParam(required = false) String city) {
         try {
             List<CartService.CartItem> cartItems = convertToCartItems(items);
-            BigDecimal subtotal = cartService.calculateTotal(cartItems);
-            BigDecimal shipping = calculateShippingCost(cartItems);
+            CartEvaluation evaluation = cartService.evaluate(cartItems, city);
 
             Map<String, Object> response = new HashMap<>();
-            response.put("subtotal", subtotal);
-            response.put("shipping", shipping);
-            response.put("freeShippingThreshold", BigDecimal.valueOf(200));
+            response.put("subtotal", evaluation.getSubtotal());
+            response.put("shipping", evaluation.getShipping());
+            response.put("freeShipping", evaluation.isFreeShipping());
+            response.put("shippingAvailable", evaluation.isShippingAvailable());
+            response.put("freeShippingThreshold", cartService.getFreeShippingThreshold());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -201,10 +211,16 @@ public class CartController {
      * Convert request items to CartService.CartItem objects
      */
     private List<CartService.CartItem> convertToCartItems(List<CartItemRequest> requests) {
+        List<Long> productIds = new ArrayList<>();
+        for (CartItemRequest request : requests) {
+            productIds.add(request.getProductId());
+        }
+        Map<Long, Product> products = productService.findAllByIds(productIds);
+
         List<CartService.CartItem> cartItems = new ArrayList<>();
         for (CartItemRequest request : requests) {
-            Optional<Product> product = productService.findById(request.getProductId());
-            if (product.isPresent()) {
+            Product product = products.get(request.getProductId());
+            if (product != null) {
                 com.example.silea.enums.ProductSize size = null;
                 if (request.getSize() != null && !request.getSize().isEmpty()) {
                     try {
@@ -213,21 +229,12 @@ public class CartController {
                         // Invalid size, will use null (base price)
                     }
                 }
-                cartItems.add(new CartService.CartItem(product.get(), request.getQuantity(), size));
+                cartItems.add(new CartService.CartItem(product, request.getQuantity(), size));
             }
         }
         return cartItems;
     }
 
-    /**
-     * Calculate shipping cost (duplicate of CartService logic for API response)
-     */
-    private BigDecimal calculateShippingCost(List<CartService.CartItem> items) {
-        BigDecimal subtotal = cartService.calculateTotal(items);
-        // Free shipping over 200 DH
-        return subtotal.compareTo(BigDecimal.valueOf(200)) >= 0 ? BigDecimal.ZERO : BigDecimal.valueOf(30);
-    }
-
     // DTO classes
     public static class CartItemRequest {
         private Long productId;
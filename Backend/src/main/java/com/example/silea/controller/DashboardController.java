@@ -1,8 +1,11 @@
 package com.example.silea.controller;
 
 import com.example.silea.service.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -10,6 +13,7 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,13 +26,73 @@ public class DashboardController {
     private final CustomerService customerService;
     private final ProductService productService;
     private final OrderTrackingService orderTrackingService;
+    private final OrderRollupService orderRollups;
+    private final DashboardOverviewService overviewService;
+    private final DashboardFeedService feedService;
 
     public DashboardController(OrderService orderService, CustomerService customerService,
-                             ProductService productService, OrderTrackingService orderTrackingService) {
+                             ProductService productService, OrderTrackingService orderTrackingService,
+                             OrderRollupService orderRollups, DashboardOverviewService overviewService,
+                             DashboardFeedService feedService) {
         this.orderService = orderService;
         this.customerService = customerService;
         this.productService = productService;
         this.orderTrackingService = orderTrackingService;
+        this.orderRollups = orderRollups;
+        this.overviewService = overviewService;
+        this.feedService = feedService;
+    }
+
+    /**
+     * Get every dashboard section in one call
+     */
+    @GetMapping("/overview")
+    @Operation(summary = "Get dashboard overview", description = "Statistics, delivery performance and alerts in one call. Sections load concurrently; a section that fails or times out is null and listed in failedSections.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved dashboard overview",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"orders\": {\"totalOrders\": 100, \"pendingOrders\": 10}, \"customers\": {\"totalCustomers\": 50}, \"products\": {\"totalProducts\": 200, \"unavailableProducts\": 2}, \"tracking\": null, \"deliveryPerformance\": {\"averageDeliveryTime\": 24.5, \"delayedOrdersCount\": 5}, \"inventoryAlerts\": {\"unavailableProducts\": 2, \"totalProducts\": 200}, \"alerts\": {\"unavailableProductsCount\": 2, \"pendingOrdersCount\": 10, \"delayedDeliveriesCount\": 5}, \"partial\": true, \"failedSections\": [\"tracking\"], \"elapsedMs\": 180}"))),
+        @ApiResponse(responseCode = "500", description = "Error retrieving dashboard overview")
+    })
+    public ResponseEntity<?> getDashboardOverview() {
+        try {
+            return ResponseEntity.ok(overviewService.getOverview());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error retrieving dashboard overview: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get a ticket for opening the live feed (EventSource cannot send the JWT header)
+     */
+    @PostMapping("/feed/ticket")
+    @Operation(summary = "Get live feed ticket", description = "Single-use ticket, valid for a few seconds, to pass as ?ticket= when opening /api/admin/dashboard/feed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ticket issued",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"success\": true, \"ticket\": \"q3JXo1k0yJ8b7cNQW4q9zS1sY2pVbQ5d\"}")))
+    })
+    public ResponseEntity<?> getFeedTicket() {
+        return ResponseEntity.ok(Map.of("success", true, "ticket", feedService.issueTicket()));
+    }
+
+    /**
+     * Live dashboard feed over Server-Sent Events
+     */
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Live dashboard feed", description = "Server-Sent Events stream: 'counters' (order statistics, sent first and after every order change), 'order-created', 'order-status', 'tracking', and 'resync' when the client fell too far behind and should reload the dashboard")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream opened"),
+        @ApiResponse(responseCode = "401", description = "Missing, used or expired ticket"),
+        @ApiResponse(responseCode = "503", description = "Too many open feeds")
+    })
+    public ResponseEntity<SseEmitter> getFeed(@RequestParam(required = false) String ticket) {
+        if (!feedService.redeemTicket(ticket)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.ok(feedService.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 
     /**
@@ -104,6 +168,58 @@ public class DashboardController {
         }
     }
 
+    /**
+     * Get sales trends over a range of days
+     */
+    @GetMapping("/trends")
+    @Operation(summary = "Get sales trends", description = "Daily orders and delivered revenue, totals per status, top cities, top products and sales per category, summed from the daily rollups (aggregated from the orders until the rollups are backfilled). Defaults to the last 30 days.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved sales trends",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"from\": \"2025-01-01\", \"to\": \"2025-01-30\", \"source\": \"rollups\", \"daily\": [{\"date\": \"2025-01-01\", \"orders\": 12, \"deliveredRevenue\": 2450.00}], \"byStatus\": [{\"status\": \"DELIVERED\", \"orders\": 300, \"total\": 61200.00}], \"topCities\": [{\"city\": \"Casablanca\", \"orders\": 120, \"total\": 24800.00}], \"topProducts\": [{\"productId\": 3, \"units\": 85, \"revenue\": 9350.00}], \"byCategory\": [{\"categoryId\": 1, \"units\": 210, \"revenue\": 30100.00}]}"))),
+        @ApiResponse(responseCode = "400", description = "Invalid date range"),
+        @ApiResponse(responseCode = "500", description = "Error retrieving sales trends")
+    })
+    public ResponseEntity<?> getTrends(@RequestParam(required = false) String from,
+                                       @RequestParam(required = false) String to) {
+        try {
+            LocalDate end = to != null ? LocalDate.parse(to) : LocalDate.now();
+            LocalDate start = from != null ? LocalDate.parse(from) : end.minusDays(29);
+            if (end.isBefore(start)) {
+                return ResponseEntity.badRequest().body(Map.of("success", false, "message", "'to' must not be before 'from'"));
+            }
+            return ResponseEntity.ok(orderRollups.getTrends(start, end));
+        } catch (java.time.format.DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Dates must be formatted as yyyy-MM-dd"));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error retrieving sales trends: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the daily rollups of a range of days from the orders
+     */
+    @PostMapping("/rollups/rebuild")
+    @Operation(summary = "Rebuild daily rollups", description = "Recompute the daily order rollups for a range of days; without a range the whole history is backfilled")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rollups rebuilt",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"success\": true, \"message\": \"Rollups rebuilt\"}"))),
+        @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    public ResponseEntity<?> rebuildRollups(@RequestParam(required = false) String from,
+                                            @RequestParam(required = false) String to) {
+        try {
+            if (from == null && to == null) {
+                orderRollups.backfill();
+            } else {
+                LocalDate end = to != null ? LocalDate.parse(to) : LocalDate.now();
+                orderRollups.rebuild(from != null ? LocalDate.parse(from) : end, end);
+            }
+            return ResponseEntity.ok(Map.of("success", true, "message", "Rollups rebuilt"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Error rebuilding rollups: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get delivery performance metrics
      */
@@ -119,7 +235,7 @@ public class DashboardController {
         try {
             Map<String, Object> performance = new HashMap<>();
             performance.put("averageDeliveryTime", orderTrackingService.getAverageDeliveryTime());
-            performance.put("delayedOrdersCount", orderTrackingService.getOrdersWithDelayedTracking(48).size());
+            performance.put("delayedOrdersCount", orderTrackingService.countOrdersWithDelayedTracking(48));
 
             return ResponseEntity.ok(performance);
         } catch (Exception e) {
@@ -141,8 +257,9 @@ public class DashboardController {
     public ResponseEntity<?> getInventoryAlerts() {
         try {
             Map<String, Object> alerts = new HashMap<>();
-            alerts.put("unavailableProducts", productService.getProductStatistics().getUnavailableProducts());
-            alerts.put("totalProducts", productService.getProductStatistics().getTotalProducts());
+            ProductService.ProductStatistics productStats = productService.getProductStatistics();
+            alerts.put("unavailableProducts", productStats.getUnavailableProducts());
+            alerts.put("totalProducts", productStats.getTotalProducts());
 
             return ResponseEntity.ok(alerts);
         } catch (Exception e) {
@@ -172,7 +289,7 @@ public class DashboardController {
             alerts.put("pendingOrdersCount", orderService.getOrderStatistics().getPendingOrders());
 
             // Delayed deliveries
-            alerts.put("delayedDeliveriesCount", orderTrackingService.getOrdersWithDelayedTracking(48).size());
+            alerts.put("delayedDeliveriesCount", orderTrackingService.countOrdersWithDelayedTracking(48));
 
             return ResponseEntity.ok(alerts);
         } catch (Exception e) {
@@ -2,11 +2,13 @@ package com.example.silea.controller;
 
 import com.example.silea.entity.Order;
 import com.example.silea.enums.OrderStatus;
+import com.example.silea.event.OrderChangedEvent;
 import com.example.silea.repository.OrderRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -34,12 +36,15 @@ public class MondayWebhookController {
     private final OrderRepository orderRepository;
     private final ObjectMapper objectMapper;
     private final com.example.silea.service.WhatsAppService whatsAppService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MondayWebhookController(OrderRepository orderRepository, ObjectMapper objectMapper,
-                                  com.example.silea.service.WhatsAppService whatsAppService) {
+                                  com.example.silea.service.WhatsAppService whatsAppService,
+                                  ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.objectMapper = objectMapper;
         this.whatsAppService = whatsAppService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -176,6 +181,7 @@ public class MondayWebhookController {
                 
                 // Send WhatsApp notification ONLY if status actually changed
                 if (oldStatus != newStatus) {
+                    eventPublisher.publishEvent(OrderChangedEvent.statusChanged(order, oldStatus));
                     try {
                         logger.info("Sending WhatsApp notification for status change: {} -> {}", 
                             oldStatus, newStatus);
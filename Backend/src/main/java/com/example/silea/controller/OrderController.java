@@ -1,6 +1,7 @@
 package com.example.silea.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,18 +10,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import com.example.silea.entity.*;
 import com.example.silea.enums.OrderStatus;
 import com.example.silea.enums.ProductSize;
+import com.example.silea.service.CartEvaluation;
 import com.example.silea.service.CartService;
 import com.example.silea.service.CustomerService;
+import com.example.silea.service.IdempotencyService;
+import com.example.silea.service.Money;
 import com.example.silea.service.OrderService;
+import com.example.silea.service.PriceQuoteService;
+import com.example.silea.service.PriceResolver;
 import com.example.silea.service.ProductService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -34,12 +40,20 @@ public class OrderController {
     private final CustomerService customerService;
     private final ProductService productService;
     private final CartService cartService;
+    private final IdempotencyService idempotencyService;
+    private final PriceQuoteService priceQuoteService;
+    private final PriceResolver priceResolver;
 
-    public OrderController(OrderService orderService, CustomerService customerService, ProductService productService, CartService cartService) {
+    public OrderController(OrderService orderService, CustomerService customerService, ProductService productService, CartService cartService,
+                           IdempotencyService idempotencyService,
+                           PriceQuoteService priceQuoteService, PriceResolver priceResolver) {
         this.orderService = orderService;
         this.customerService = customerService;
         this.productService = productService;
         this.cartService = cartService;
+        this.idempotencyService = idempotencyService;
+        this.priceQuoteService = priceQuoteService;
+        this.priceResolver = priceResolver;
     }
 
     /**
@@ -79,7 +93,7 @@ public class OrderController {
      * Calculate shipping cost for a city
      */
     @GetMapping("/shipping")
-    @Operation(summary = "Calculate shipping cost", description = "Calculate shipping cost based on destination city. Tanger: 20 MAD, Other cities: 35 MAD. Delivery time: 24-72h")
+    @Operation(summary = "Calculate shipping cost", description = "Default shipping rate of the destination city's zone (Tanger: 20 MAD, other cities: 35 MAD); cart-specific rates come from /api/cart/shipping. Delivery time: 24-72h")
     public ResponseEntity<?> calculateShipping(@RequestParam String city) {
         try {
             Map<String, Object> shippingInfo = cartService.getShippingInfo(city);
@@ -98,10 +112,37 @@ public class OrderController {
     @PostMapping
     @Operation(summary = "Create new order", description = "Create a new order for a customer. Price is calculated automatically based on product base price and selected size.")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Order created successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid order data")
+        @ApiResponse(responseCode = "200", description = "Order created successfully (or replayed, see the Idempotent-Replayed header)"),
+        @ApiResponse(responseCode = "400", description = "Invalid order data"),
+        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different order (customer, address, city or items)")
     })
-    public ResponseEntity<?> createOrder(@RequestBody OrderRequest request) {
+    public ResponseEntity<?> createOrder(
+            @Parameter(description = "Client-generated key (e.g. a UUID per checkout); retries with the same key return the first response instead of creating another order")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody OrderRequest request) {
+        if (idempotencyKey == null) {
+            return placeOrder(request);
+        }
+        return idempotencyService.execute(idempotencyKey, idempotencyFingerprint(request), () -> placeOrder(request));
+    }
+
+    /**
+     * What makes two order requests the same order: a retry may carry a refreshed quote token,
+     * notes or delivery estimate and must still replay the first response
+     */
+    private static Map<String, Object> idempotencyFingerprint(OrderRequest request) {
+        Map<String, Object> fingerprint = new LinkedHashMap<>();
+        fingerprint.put("customerName", request.getCustomerName());
+        fingerprint.put("customerEmail", request.getCustomerEmail());
+        fingerprint.put("customerPhone", request.getCustomerPhone());
+        fingerprint.put("shippingAddress", request.getShippingAddress());
+        fingerprint.put("customerCity", request.getCustomerCity());
+        fingerprint.put("items", request.getItems());
+        return fingerprint;
+    }
+
+    private ResponseEntity<?> placeOrder(OrderRequest request) {
         try {
             // Validate required fields
             List<String> validationErrors = validateOrderRequest(request);
@@ -137,52 +178,63 @@ public class OrderController {
                 );
             }
 
-            // Calculate shipping cost based on city
-            BigDecimal shippingCost = cartService.calculateShipping(request.getCustomerCity());
-
             // Convert request items to OrderItem entities with automatic pricing
             List<OrderItem> orderItems = new ArrayList<>();
-            BigDecimal subtotal = BigDecimal.ZERO;
+            List<CartService.CartItem> cartItems = new ArrayList<>();
+            long subtotalCentimes = 0;
             List<Map<String, Object>> itemDetails = new ArrayList<>();
 
+            // Resolve every referenced product (with category and size prices) in one round trip
+            List<Long> productIds = new ArrayList<>();
             for (OrderItemRequest item : request.getItems()) {
-                // Fetch product from database
-                Product product = productService.findById(item.getProductId())
-                        .orElseThrow(() -> new IllegalArgumentException("Product not found: " + item.getProductId()));
+                productIds.add(item.getProductId());
+            }
+            Map<Long, Product> products = productService.findAllByIds(productIds);
+
+            // A valid quote from the cart summary carries the prices already computed for these items
+            PriceQuoteService.Quote quote = priceQuoteService.verify(request.getQuoteToken(), request.getCustomerCity());
+            if (quote != null && !quoteMatches(quote, request.getItems())) {
+                quote = null;
+            }
+
+            for (int i = 0; i < request.getItems().size(); i++) {
+                OrderItemRequest item = request.getItems().get(i);
+                Product product = products.get(item.getProductId());
+                if (product == null) {
+                    throw new IllegalArgumentException("Product not found: " + item.getProductId());
+                }
                 
                 // Check if product is available
                 if (!product.getAvailable()) {
                     throw new IllegalArgumentException("Product is not available: " + product.getName());
                 }
 
-                // Parse the size
+                // Prices are computed in centimes and converted once for the order item and response
                 ProductSize size;
-                try {
-                    size = ProductSize.valueOf(item.getSize().toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    throw new IllegalArgumentException("Invalid size: " + item.getSize() + 
-                        ". Valid sizes: OIL_5L, OIL_2L, OIL_1L, HONEY_1KG, HONEY_500G, HONEY_250G");
+                long unitCentimes;
+                if (quote != null) {
+                    // Price was computed when the quote was issued
+                    PriceQuoteService.Line line = quote.getLines().get(i);
+                    size = line.getSize();
+                    unitCentimes = line.getUnitPriceCentimes();
+                } else {
+                    size = parseSize(item.getSize());
+                    // Size price override, else base price times the size multiplier
+                    unitCentimes = priceResolver.resolve(product, size);
+                    cartItems.add(new CartService.CartItem(product, item.getQuantity(), size));
                 }
 
-                // Validate size matches product category
-                String categoryName = product.getCategory().getName().toLowerCase();
-                boolean isOilProduct = categoryName.contains("oil") || categoryName.contains("huile") || categoryName.contains("زيت");
-                boolean isHoneyProduct = categoryName.contains("honey") || categoryName.contains("miel") || categoryName.contains("عسل");
-                
-                if (isOilProduct && !size.isOilSize()) {
-                    throw new IllegalArgumentException("Product '" + product.getName() + "' is oil. Use sizes: OIL_5L, OIL_2L, or OIL_1L");
-                }
-                if (isHoneyProduct && !size.isHoneySize()) {
-                    throw new IllegalArgumentException("Product '" + product.getName() + "' is honey. Use sizes: HONEY_1KG, HONEY_500G, or HONEY_250G");
+                // Validate size matches product category, quoted or not
+                String sizeError = cartService.sizeError(product, size);
+                if (sizeError != null) {
+                    throw new IllegalArgumentException(sizeError);
                 }
-
-                // Calculate unit price based on product base price and size multiplier
-                BigDecimal unitPrice = product.getPrice().multiply(size.getPriceMultiplier())
-                        .setScale(2, RoundingMode.HALF_UP);
                 
                 // Calculate total for this item
-                BigDecimal itemTotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
-                subtotal = subtotal.add(itemTotal);
+                long itemCentimes = Money.lineTotal(unitCentimes, item.getQuantity());
+                subtotalCentimes = Math.addExact(subtotalCentimes, itemCentimes);
+                BigDecimal unitPrice = Money.toAmount(unitCentimes);
+                BigDecimal itemTotal = Money.toAmount(itemCentimes);
                 
                 // Create order item
                 OrderItem orderItem = new OrderItem();
@@ -208,7 +260,20 @@ public class OrderController {
                 itemDetails.add(itemDetail);
             }
 
+            // Shipping follows the same rules as the cart (zones, oil restrictions, free shipping)
+            BigDecimal shippingCost;
+            if (quote != null) {
+                shippingCost = quote.getShipping();
+            } else {
+                CartEvaluation evaluation = cartService.evaluate(cartItems, request.getCustomerCity());
+                if (!evaluation.isShippingAvailable()) {
+                    throw new IllegalArgumentException("Oil products cannot be delivered to " + request.getCustomerCity());
+                }
+                shippingCost = evaluation.getShipping();
+            }
+
             // Calculate total with shipping
+            BigDecimal subtotal = Money.toAmount(subtotalCentimes);
             BigDecimal orderTotal = subtotal.add(shippingCost);
 
             // Create order with all shipping information
@@ -256,6 +321,7 @@ public class OrderController {
             orderSummary.put("shippingCost", shippingCost);
             orderSummary.put("deliveryTime", "24-72h");
             orderSummary.put("totalAmount", orderTotal);
+            orderSummary.put("pricedFromQuote", quote != null);
             
             response.put("order", orderSummary);
 
@@ -461,6 +527,34 @@ public class OrderController {
         
         return errors;
     }
+
+    private ProductSize parseSize(String size) {
+        try {
+            return ProductSize.valueOf(size.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid size: " + size +
+                ". Valid sizes: OIL_5L, OIL_2L, OIL_1L, HONEY_1KG, HONEY_500G, HONEY_250G");
+        }
+    }
+
+    /**
+     * Whether a quote covers exactly the requested items, in the same order
+     */
+    private boolean quoteMatches(PriceQuoteService.Quote quote, List<OrderItemRequest> items) {
+        if (quote.getLines().size() != items.size()) {
+            return false;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            PriceQuoteService.Line line = quote.getLines().get(i);
+            OrderItemRequest item = items.get(i);
+            if (line.getProductId() != item.getProductId()
+                    || line.getQuantity() != item.getQuantity()
+                    || !line.getSize().name().equalsIgnoreCase(item.getSize())) {
+                return false;
+            }
+        }
+        return true;
+    }
     
     /**
      * Simple email validation
@@ -556,17 +650,48 @@ public class OrderController {
     })
     public ResponseEntity<?> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Keyset cursor from a previous response (empty for the first page); returns {items, nextCursor, hasNext} instead of an array")
+            @RequestParam(required = false) String cursor) {
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(orderService.getOrdersPage(cursor, Math.min(Math.max(size, 1), 100)));
+            }
             // Return paginated list of all orders
             List<Order> orders = orderService.getAllOrders(page, size);
             // Optionally include pagination metadata in a map, but frontend expects an array
             return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error retrieving orders: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error retrieving orders: " + e.getMessage());
         }
     }
 
+    /**
+     * Get orders created or modified since a watermark (admin only)
+     */
+    @GetMapping("/admin/changes")
+    @Operation(summary = "Get order changes (admin only)", description = "Orders created or modified after the 'since' watermark, oldest change first, for incremental sync of admin lists. Omit 'since' for a full initial sync; keep calling with the returned 'since' while hasMore is true, then poll with it later. Changes from the last few seconds are held back until they are settled.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Order changes retrieved successfully",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"orders\": [{\"id\": 42, \"orderNumber\": \"CMD000042\", \"status\": \"SHIPPED\", \"updatedAt\": \"2025-01-05T14:03:11.532\"}], \"since\": \"MjAyNS0wMS0wNVQxNDowMzoxMS41MzJ8NDI\", \"hasMore\": false}"))),
+        @ApiResponse(responseCode = "400", description = "Invalid watermark",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"success\": false, \"message\": \"Invalid cursor\"}")))
+    })
+    public ResponseEntity<?> getOrderChanges(
+            @Parameter(description = "Watermark from a previous response; empty for a full sync")
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderChanges(since, Math.min(Math.max(size, 1), 500)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error retrieving order changes: " + e.getMessage());
+        }
+    }
+
     /**
      * Update order status (admin only)
      */
@@ -925,6 +1050,7 @@ public class OrderController {
         private String notes;
         private LocalDateTime estimatedDeliveryDate;
         private List<OrderItemRequest> items;
+        private String quoteToken; // from POST /api/cart/summary, optional
 
         public OrderRequest() {}
 
@@ -952,6 +1078,9 @@ public class OrderController {
 
         public List<OrderItemRequest> getItems() { return items; }
         public void setItems(List<OrderItemRequest> items) { this.items = items; }
+
+        public String getQuoteToken() { return quoteToken; }
+        public void setQuoteToken(String quoteToken) { this.quoteToken = quoteToken; }
     }
 
     public static class OrderItemRequest {
@@ -1,5 +1,6 @@
 package com.example.silea.controller;
 
+import com.example.silea.dto.ProductListItem;
 import com.example.silea.entity.Product;
 import com.example.silea.entity.ProductImage;
 import com.example.silea.entity.ProductSizePrice;
@@ -12,15 +13,26 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import com.example.silea.service.CatalogSnapshotService;
+import com.example.silea.service.ProductFacetService;
+import com.example.silea.service.ProductImageService;
+import com.example.silea.service.ProductImportService;
 import com.example.silea.service.ProductService;
+import com.example.silea.service.ProductSuggestService;
+import com.example.silea.service.StockService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,11 +57,26 @@ public class ProductController {
     private final ProductService productService;
     private final ProductSizePriceRepository sizePriceRepository;
     private final ProductImageRepository productImageRepository;
-
-    public ProductController(ProductService productService, ProductSizePriceRepository sizePriceRepository, ProductImageRepository productImageRepository) {
+    private final ProductSuggestService suggestService;
+    private final CatalogSnapshotService snapshotService;
+    private final ProductFacetService facetService;
+    private final ProductImportService importService;
+    private final ProductImageService productImageService;
+    private final StockService stockService;
+
+    public ProductController(ProductService productService, ProductSizePriceRepository sizePriceRepository, ProductImageRepository productImageRepository,
+                             ProductSuggestService suggestService, CatalogSnapshotService snapshotService,
+                             ProductFacetService facetService, ProductImportService importService,
+                             ProductImageService productImageService, StockService stockService) {
         this.productService = productService;
         this.sizePriceRepository = sizePriceRepository;
         this.productImageRepository = productImageRepository;
+        this.suggestService = suggestService;
+        this.snapshotService = snapshotService;
+        this.facetService = facetService;
+        this.importService = importService;
+        this.productImageService = productImageService;
+        this.stockService = stockService;
     }
 
     /**
@@ -68,8 +95,13 @@ public class ProductController {
     })
     public ResponseEntity<?> getProducts(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Number of products per page") @RequestParam(defaultValue = "12") int size) {
+            @Parameter(description = "Number of products per page") @RequestParam(defaultValue = "12") int size,
+            @Parameter(description = "Keyset cursor from a previous response (empty for the first page); switches to cursor pagination without counts")
+            @RequestParam(required = false) String cursor) {
         try {
+            if (cursor != null) {
+                return ResponseEntity.ok(productService.getProductsPage(cursor, Math.min(Math.max(size, 1), 100)));
+            }
             Pageable pageable = PageRequest.of(page, size);
             Page<Product> products = productService.getProducts(pageable);
 
@@ -80,6 +112,8 @@ public class ProductController {
             response.put("currentPage", products.getNumber());
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error retrieving products: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error retrieving products: " + e.getMessage());
         }
@@ -100,7 +134,7 @@ public class ProductController {
     })
     public ResponseEntity<?> getProduct(@PathVariable Long id) {
         try {
-            Optional<Product> product = productService.findById(id);
+            Optional<Product> product = productService.getCatalogProduct(id);
             if (product.isPresent()) {
                 return ResponseEntity.ok(product.get());
             } else {
@@ -131,6 +165,91 @@ public class ProductController {
         }
     }
 
+    /**
+     * Typeahead suggestions for the search box (public endpoint)
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggest products and categories", description = "Return product and category names starting with the typed prefix, best sellers first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved suggestions.",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "[{\"text\": \"Huile d'olive\", \"type\": \"product\", \"id\": 1}, {\"text\": \"Huiles\", \"type\": \"category\", \"id\": 2}]")))
+    })
+    public ResponseEntity<?> suggest(@RequestParam String prefix,
+                                     @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, Math.min(Math.max(limit, 1), 20)));
+    }
+
+    /**
+     * Faceted product filtering (public endpoint); only active products are listed
+     */
+    @GetMapping("/filter")
+    @Operation(summary = "Filter products", description = "Filter the active catalog by any combination of category, price range, size, availability and featured flag. Several values of one filter are OR-ed, different filters are AND-ed. Returns the matching page and the count for every facet value.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully filtered products.",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"products\": [{\"id\": 1, \"name\": \"Huile d'olive\", \"price\": 180.00}], \"total\": 1, \"facets\": {\"category\": {\"1\": 1}, \"priceRange\": {\"100-200\": 1}, \"sizes\": {\"OIL_5L\": 1}, \"available\": {\"true\": 1}, \"featured\": {\"false\": 1}}}")))
+    })
+    public ResponseEntity<?> filterProducts(
+            @Parameter(description = "Category IDs") @RequestParam(required = false) List<String> categoryId,
+            @Parameter(description = "Price range keys as returned in facets, e.g. 100-200 or 500+") @RequestParam(required = false) List<String> priceRange,
+            @Parameter(description = "Size codes, e.g. OIL_5L") @RequestParam(required = false) List<String> sizes,
+            @RequestParam(required = false) List<String> available,
+            @RequestParam(required = false) List<String> featured,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "newest (default), price_asc, price_desc or name") @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "24") int size) {
+        try {
+            ProductFacetService.FilterResult result = filter(categoryId, priceRange, sizes, available, featured,
+                    List.of(ProductStatus.ACTIVE.name()), minPrice, maxPrice, sort, page, size);
+            // Counts per status would reveal how many products are inactive or discontinued
+            result.getFacets().remove(ProductFacetService.FACET_STATUS);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error filtering products: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Faceted product filtering over every status (admin only)
+     */
+    @GetMapping("/admin/filter")
+    @Operation(summary = "Filter products (admin)", description = "Same as /filter, with a status filter and status counts (Admin only)",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<?> filterProductsAdmin(
+            @RequestParam(required = false) List<String> categoryId,
+            @RequestParam(required = false) List<String> priceRange,
+            @RequestParam(required = false) List<String> sizes,
+            @RequestParam(required = false) List<String> available,
+            @RequestParam(required = false) List<String> featured,
+            @Parameter(description = "Product statuses (all when omitted)") @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "24") int size) {
+        try {
+            return ResponseEntity.ok(filter(categoryId, priceRange, sizes, available, featured, status,
+                    minPrice, maxPrice, sort, page, size));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Error filtering products: " + e.getMessage());
+        }
+    }
+
+    private ProductFacetService.FilterResult filter(List<String> categoryId, List<String> priceRange, List<String> sizes,
+                                                    List<String> available, List<String> featured, List<String> status,
+                                                    BigDecimal minPrice, BigDecimal maxPrice, String sort, int page, int size) {
+        Map<String, Collection<String>> selected = new HashMap<>();
+        selected.put(ProductFacetService.FACET_CATEGORY, categoryId);
+        selected.put(ProductFacetService.FACET_PRICE_RANGE, priceRange);
+        selected.put(ProductFacetService.FACET_SIZE, sizes);
+        selected.put(ProductFacetService.FACET_AVAILABLE, available);
+        selected.put(ProductFacetService.FACET_FEATURED, featured);
+        selected.put(ProductFacetService.FACET_STATUS, status);
+        return facetService.filter(selected, minPrice, maxPrice, sort,
+                Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+    }
+
     /**
      * Get products by category (public endpoint)
      */
@@ -142,9 +261,15 @@ public class ProductController {
         @ApiResponse(responseCode = "500", description = "Error retrieving products by category.",
             content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\": \"Error retrieving products by category: Internal Server Error\"}")))
     })
-    public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                   HttpServletResponse response) {
         try {
-            List<Product> products = productService.getProductsByCategory(categoryId);
+            CatalogSnapshotService.Snapshot snapshot = snapshotService.categoryProducts(categoryId);
+            if (snapshot != null) {
+                return snapshotService.toResponse(snapshot, acceptEncoding, response);
+            }
+            List<ProductListItem> products = productService.getProductsByCategory(categoryId);
             return ResponseEntity.ok(products);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error retrieving products by category: " + e.getMessage());
@@ -162,10 +287,10 @@ public class ProductController {
         @ApiResponse(responseCode = "500", description = "Error retrieving featured products.",
             content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\": \"Error retrieving featured products: Internal Server Error\"}")))
     })
-    public ResponseEntity<?> getFeaturedProducts() {
+    public ResponseEntity<?> getFeaturedProducts(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                 HttpServletResponse response) {
         try {
-            List<Product> products = productService.getHomepageProducts();
-            return ResponseEntity.ok(products);
+            return snapshotService.toResponse(snapshotService.featuredProducts(), acceptEncoding, response);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Error retrieving featured products: " + e.getMessage());
         }
@@ -173,6 +298,53 @@ public class ProductController {
 
     // Admin endpoints below
 
+    /**
+     * Bulk create/update products from a CSV or NDJSON body (admin only)
+     */
+    @PostMapping(value = "/admin/import", consumes = {"text/csv", "application/x-ndjson", "application/json", "text/plain"})
+    @Operation(summary = "Import products", description = "Stream a CSV (header row first) or NDJSON body to create or update products in batches. " +
+            "Rows are matched by id, or by exact name when no id is given. Size prices are given as one column per size (5L, 1kg, ...). (Admin only)",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished; invalid rows are listed in the report",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"success\": true, \"message\": \"Import finished\", \"report\": {\"processed\": 3, \"inserted\": 1, \"updated\": 1, \"failed\": 1, \"errorsTruncated\": false, \"errors\": [{\"line\": 4, \"message\": \"Category not found: 9\"}]}}"))),
+        @ApiResponse(responseCode = "400", description = "Body broke off; rows before the error were imported and are counted in the report",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"success\": false, \"message\": \"Import stopped early: Unterminated quoted field starting on line 12 (10 rows before it were imported)\", \"report\": {\"processed\": 10, \"inserted\": 4, \"updated\": 6, \"failed\": 0, \"aborted\": true, \"abortReason\": \"Unterminated quoted field starting on line 12\", \"errors\": []}}"))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token required",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\": \"Unauthorized\"}"))),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"message\": \"Forbidden\"}")))
+    })
+    public ResponseEntity<?> importProducts(
+            @Parameter(description = "csv or ndjson; defaults to the request content type") @RequestParam(required = false) String format,
+            HttpServletRequest request) {
+        try {
+            String contentType = request.getContentType() != null ? request.getContentType().toLowerCase() : "";
+            boolean ndjson = format != null ? format.equalsIgnoreCase("ndjson") : contentType.contains("ndjson") || contentType.contains("json");
+            ProductImportService.ImportReport report = ndjson
+                    ? importService.importNdjson(request.getInputStream())
+                    : importService.importCsv(request.getInputStream());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("report", report);
+            if (report.isAborted()) {
+                // Rows before the break are committed; the report says which ones
+                response.put("success", false);
+                response.put("message", "Import stopped early: " + report.getAbortReason() + " ("
+                        + (report.getInserted() + report.getUpdated()) + " rows before it were imported)");
+                return ResponseEntity.badRequest().body(response);
+            }
+            response.put("success", true);
+            response.put("message", "Import finished");
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Error importing products: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Create new product (admin only)
      */
@@ -216,6 +388,7 @@ public class ProductController {
                 }
                 sizePriceRepository.saveAll(sizePrices);
                 product.setSizePrices(sizePrices);
+                productService.markProductChanged(product.getId());
             }
 
             Map<String, Object> response = new HashMap<>();
@@ -380,6 +553,64 @@ public class ProductController {
         }
     }
 
+    /**
+     * Get stock per tracked size (admin only)
+     */
+    @GetMapping("/admin/{id}/stock")
+    @Operation(summary = "Get product stock", description = "Units left per stock-tracked size; sizes not listed are unlimited (Admin only)",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock retrieved successfully",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"success\": true, \"stock\": [{\"size\": \"OIL_1L\", \"unleased\": 180, \"leasedHere\": 20}]}"))),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token required"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    public ResponseEntity<?> getStock(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("stock", stockService.getStock(id));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Set the stock of a size, or stop tracking it (admin only)
+     */
+    @PutMapping("/admin/{id}/stock")
+    @Operation(summary = "Set product stock", description = "Set the units on sale for a size; a null quantity makes the size unlimited (Admin only)",
+        security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock updated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid size or quantity"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - JWT token required"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required"),
+        @ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    public ResponseEntity<?> setStock(@PathVariable Long id, @RequestBody StockRequest request) {
+        try {
+            if (productService.findById(id).isEmpty()) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "Product not found with ID: " + id);
+                return ResponseEntity.status(404).body(response);
+            }
+            if (request.getSize() == null) {
+                throw new IllegalArgumentException("Size is required");
+            }
+            stockService.setStock(id, ProductSize.valueOf(request.getSize()), request.getQuantity());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Stock updated successfully");
+            response.put("stock", stockService.getStock(id));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Error updating stock: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Soft delete product - deactivates instead of deleting (admin only)
      */
@@ -468,32 +699,14 @@ public class ProductController {
     @PostMapping("/admin/{id}/images")
     @Operation(summary = "Add product images", description = "Add one or more images to a product (Admin only)",
         security = @SecurityRequirement(name = "bearerAuth"))
-    @Transactional
     public ResponseEntity<?> addProductImages(@PathVariable Long id, @RequestBody ImageRequest request) {
         try {
-            Optional<Product> productOpt = productService.findById(id);
-            if (productOpt.isEmpty()) {
+            if (productService.findById(id).isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
-            Product product = productOpt.get();
-            
-            List<ProductImage> savedImages = new ArrayList<>();
-            int currentCount = (int) productImageRepository.countByProductId(id);
-            
-            for (int i = 0; i < request.getImageUrls().size(); i++) {
-                String imageUrl = request.getImageUrls().get(i);
-                boolean isPrimary = (currentCount == 0 && i == 0); // First image is primary if none exist
-                
-                ProductImage image = new ProductImage(imageUrl, product, currentCount + i, isPrimary);
-                savedImages.add(productImageRepository.save(image));
-            }
-            
-            // Also update the legacy imageUrl field with the first/primary image
-            if (currentCount == 0 && !savedImages.isEmpty()) {
-                product.setImageUrl(savedImages.get(0).getImageUrl());
-                productService.save(product);
-            }
-            
+
+            List<ProductImage> savedImages = productImageService.addImages(id, request.getImageUrls());
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Images added successfully");
@@ -528,51 +741,20 @@ public class ProductController {
     @DeleteMapping("/admin/{productId}/images/{imageId}")
     @Operation(summary = "Delete product image", description = "Delete a specific image from a product (Admin only)",
         security = @SecurityRequirement(name = "bearerAuth"))
-    @Transactional
     public ResponseEntity<?> deleteProductImage(@PathVariable Long productId, @PathVariable Long imageId) {
         try {
-            Optional<ProductImage> imageOpt = productImageRepository.findById(imageId);
-            if (imageOpt.isEmpty()) {
+            // If the deleted image was primary, the next one in display order takes over
+            if (!productImageService.deleteImage(productId, imageId)) {
                 return ResponseEntity.notFound().build();
             }
-            
-            ProductImage image = imageOpt.get();
-            if (!image.getProduct().getId().equals(productId)) {
-                return ResponseEntity.badRequest().body("Image does not belong to this product");
-            }
-            
-            boolean wasPrimary = image.getIsPrimary();
-            productImageRepository.delete(image);
-            
-            // If deleted image was primary, set next available as primary
-            if (wasPrimary) {
-                List<ProductImage> remainingImages = productImageRepository.findByProductIdOrderByDisplayOrderAsc(productId);
-                if (!remainingImages.isEmpty()) {
-                    ProductImage newPrimary = remainingImages.get(0);
-                    newPrimary.setIsPrimary(true);
-                    productImageRepository.save(newPrimary);
-                    
-                    // Update legacy imageUrl
-                    Optional<Product> productOpt = productService.findById(productId);
-                    if (productOpt.isPresent()) {
-                        productOpt.get().setImageUrl(newPrimary.getImageUrl());
-                        productService.save(productOpt.get());
-                    }
-                } else {
-                    // No more images, clear legacy field
-                    Optional<Product> productOpt = productService.findById(productId);
-                    if (productOpt.isPresent()) {
-                        productOpt.get().setImageUrl(null);
-                        productService.save(productOpt.get());
-                    }
-                }
-            }
-            
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Image deleted successfully");
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -587,38 +769,19 @@ public class ProductController {
     @PatchMapping("/admin/{productId}/images/{imageId}/primary")
     @Operation(summary = "Set primary image", description = "Set a specific image as the primary product image (Admin only)",
         security = @SecurityRequirement(name = "bearerAuth"))
-    @Transactional
     public ResponseEntity<?> setPrimaryImage(@PathVariable Long productId, @PathVariable Long imageId) {
         try {
-            Optional<ProductImage> imageOpt = productImageRepository.findById(imageId);
-            if (imageOpt.isEmpty()) {
+            if (!productImageService.setPrimaryImage(productId, imageId)) {
                 return ResponseEntity.notFound().build();
             }
-            
-            ProductImage image = imageOpt.get();
-            if (!image.getProduct().getId().equals(productId)) {
-                return ResponseEntity.badRequest().body("Image does not belong to this product");
-            }
-            
-            // Clear all primary flags for this product
-            productImageRepository.clearPrimaryForProduct(productId);
-            
-            // Set this image as primary
-            image.setIsPrimary(true);
-            productImageRepository.save(image);
-            
-            // Update legacy imageUrl field
-            Optional<Product> productOpt = productService.findById(productId);
-            if (productOpt.isPresent()) {
-                productOpt.get().setImageUrl(image.getImageUrl());
-                productService.save(productOpt.get());
-            }
-            
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Primary image updated successfully");
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -633,19 +796,10 @@ public class ProductController {
     @PutMapping("/admin/{productId}/images/reorder")
     @Operation(summary = "Reorder product images", description = "Update the display order of product images (Admin only)",
         security = @SecurityRequirement(name = "bearerAuth"))
-    @Transactional
     public ResponseEntity<?> reorderProductImages(@PathVariable Long productId, @RequestBody ReorderImagesRequest request) {
         try {
-            for (int i = 0; i < request.getImageIds().size(); i++) {
-                Long imageId = request.getImageIds().get(i);
-                Optional<ProductImage> imageOpt = productImageRepository.findById(imageId);
-                if (imageOpt.isPresent() && imageOpt.get().getProduct().getId().equals(productId)) {
-                    ProductImage image = imageOpt.get();
-                    image.setDisplayOrder(i);
-                    productImageRepository.save(image);
-                }
-            }
-            
+            productImageService.reorderImages(productId, request.getImageIds());
+
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Images reordered successfully");
@@ -737,6 +891,19 @@ public class ProductController {
         public void setFeatured(Boolean featured) { this.featured = featured; }
     }
 
+    public static class StockRequest {
+        private String size;
+        private Long quantity;
+
+        public StockRequest() {}
+
+        public String getSize() { return size; }
+        public void setSize(String size) { this.size = size; }
+
+        public Long getQuantity() { return quantity; }
+        public void setQuantity(Long quantity) { this.quantity = quantity; }
+    }
+
     public static class AvailableRequest {
         private Boolean available;
 
@@ -794,5 +961,6 @@ public class ProductController {
         if (!currentPrices.isEmpty()) {
             sizePriceRepository.saveAll(currentPrices);
         }
+        productService.markProductChanged(product.getId());
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.silea.controller;
 
 import com.example.silea.entity.Category;
+import com.example.silea.service.CatalogSnapshotService;
 import com.example.silea.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -8,10 +9,11 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -24,9 +26,11 @@ import java.util.Optional;
 public class PublicCategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogSnapshotService snapshotService;
 
-    public PublicCategoryController(CategoryService categoryService) {
+    public PublicCategoryController(CategoryService categoryService, CatalogSnapshotService snapshotService) {
         this.categoryService = categoryService;
+        this.snapshotService = snapshotService;
     }
 
     /**
@@ -38,9 +42,9 @@ public class PublicCategoryController {
         @ApiResponse(responseCode = "200", description = "Successfully retrieved categories",
             content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "[{\"id\": 1, \"name\": \"Honey\", \"nameAr\": \"عسل\", \"slug\": \"honey\", \"description\": \"Pure mountain honey\", \"imageUrl\": \"/honey.jpg\", \"active\": true}]")))
     })
-    public ResponseEntity<List<Category>> getActiveCategories() {
-        List<Category> categories = categoryService.getActiveCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getActiveCategories(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                      HttpServletResponse response) {
+        return snapshotService.toResponse(snapshotService.activeCategories(), acceptEncoding, response);
     }
 
     /**
@@ -70,8 +74,8 @@ public class PublicCategoryController {
         @ApiResponse(responseCode = "404", description = "Category not found")
     })
     public ResponseEntity<?> getCategoryById(@PathVariable Long id) {
-        Optional<Category> category = categoryService.findById(id);
-        if (category.isPresent() && category.get().getIsActive()) {
+        Optional<Category> category = categoryService.findActiveById(id);
+        if (category.isPresent()) {
             return ResponseEntity.ok(category.get());
         }
         return ResponseEntity.notFound().build();
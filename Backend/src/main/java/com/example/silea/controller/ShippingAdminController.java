@@ -0,0 +1,66 @@
+package com.example.silea.controller;
+
+import com.example.silea.service.ShippingRulesEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/shipping")
+@CrossOrigin(origins = "*")
+public class ShippingAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShippingAdminController.class);
+
+    private final ShippingRulesEngine shippingRules;
+
+    public ShippingAdminController(ShippingRulesEngine shippingRules) {
+        this.shippingRules = shippingRules;
+    }
+
+    /**
+     * Get the active shipping rules
+     */
+    @GetMapping("/rules")
+    @Operation(summary = "Get shipping rules", description = "Zones, rates and free-shipping thresholds currently in use")
+    public ResponseEntity<?> getRules() {
+        return ResponseEntity.ok(shippingRules.describe());
+    }
+
+    /**
+     * Reload shipping rules from their configured location
+     */
+    @PostMapping("/reload")
+    @Operation(summary = "Reload shipping rules", description = "Re-reads the shipping rules file; the previous rules stay active if the new ones are invalid")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Rules reloaded",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"success\": true, \"message\": \"Shipping rules reloaded\", \"rules\": {\"defaultRate\": 35, \"cityAliases\": 18}}"))),
+        @ApiResponse(responseCode = "400", description = "Invalid rules file",
+            content = @Content(mediaType = "application/json", examples = @ExampleObject(value = "{\"success\": false, \"message\": \"Unknown shipping class: SPICES\"}")))
+    })
+    public ResponseEntity<?> reload() {
+        try {
+            Map<String, Object> rules = shippingRules.reload();
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Shipping rules reloaded",
+                "rules", rules
+            ));
+        } catch (Exception e) {
+            logger.warn("Shipping rules reload failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.silea.dto;
+
+import com.example.silea.enums.ProductSize;
+import com.example.silea.enums.ProductStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Slim product view for catalog listings: no descriptions, no image gallery.
+ * Built by a JPQL constructor expression; size prices are attached afterwards in one batched query.
+ */
+public class ProductListItem {
+
+    private final Long id;
+    private final String name;
+    private final String nameAr;
+    private final BigDecimal price;
+    private final Boolean available;
+    private final String imageUrl;
+    private final ProductStatus status;
+    private final Boolean featured;
+    private final CategoryRef category;
+    private final List<SizePrice> sizePrices = new ArrayList<>();
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public ProductListItem(Long id, String name, String nameAr, BigDecimal price, Boolean available,
+                           String imageUrl, ProductStatus status, Boolean featured,
+                           Long categoryId, String categoryName, String categoryNameAr, String categorySlug,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.nameAr = nameAr;
+        this.price = price;
+        this.available = available;
+        this.imageUrl = imageUrl;
+        this.status = status;
+        this.featured = featured;
+        this.category = categoryId != null ? new CategoryRef(categoryId, categoryName, categoryNameAr, categorySlug) : null;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getNameAr() { return nameAr; }
+    public BigDecimal getPrice() { return price; }
+    public Boolean getAvailable() { return available; }
+    public String getImageUrl() { return imageUrl; }
+    public ProductStatus getStatus() { return status; }
+    public Boolean getFeatured() { return featured; }
+    public CategoryRef getCategory() { return category; }
+    public List<SizePrice> getSizePrices() { return sizePrices; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public static class CategoryRef {
+        private final Long id;
+        private final String name;
+        private final String nameAr;
+        private final String slug;
+
+        public CategoryRef(Long id, String name, String nameAr, String slug) {
+            this.id = id;
+            this.name = name;
+            this.nameAr = nameAr;
+            this.slug = slug;
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public String getNameAr() { return nameAr; }
+        public String getSlug() { return slug; }
+    }
+
+    public static class SizePrice {
+        private final ProductSize size;
+        private final BigDecimal price;
+
+        public SizePrice(ProductSize size, BigDecimal price) {
+            this.size = size;
+            this.price = price;
+        }
+
+        public ProductSize getSize() { return size; }
+        public BigDecimal getPrice() { return price; }
+        public String getSizeCode() { return size != null ? size.getCode() : null; }
+        public String getSizeDisplayName() { return size != null ? size.getDisplayName() : null; }
+    }
+}
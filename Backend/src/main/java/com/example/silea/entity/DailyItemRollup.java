@@ -0,0 +1,74 @@
+package com.example.silea.entity;
+
+import com.example.silea.enums.OrderStatus;
+import com.example.silea.enums.ProductSize;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Units and revenue of a product size ordered on a day, per current order status;
+ * see OrderRollupService. Amounts are in centimes.
+ */
+@Entity
+@Table(name = "daily_item_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"rollup_date", "status", "product_id", "size"})
+})
+public class DailyItemRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OrderStatus status;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ProductSize size;
+
+    // Category of the product when the row was last written
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(name = "revenue_centimes", nullable = false)
+    private Long revenueCentimes;
+
+    // Default constructor
+    public DailyItemRollup() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getRollupDate() { return rollupDate; }
+    public void setRollupDate(LocalDate rollupDate) { this.rollupDate = rollupDate; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public ProductSize getSize() { return size; }
+    public void setSize(ProductSize size) { this.size = size; }
+
+    public Long getCategoryId() { return categoryId; }
+    public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+    public Long getUnits() { return units; }
+    public void setUnits(Long units) { this.units = units; }
+
+    public Long getRevenueCentimes() { return revenueCentimes; }
+    public void setRevenueCentimes(Long revenueCentimes) { this.revenueCentimes = revenueCentimes; }
+}
@@ -0,0 +1,59 @@
+package com.example.silea.entity;
+
+import com.example.silea.enums.OrderStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Orders placed on a day, per current status and delivery city; see OrderRollupService.
+ * Amounts are in centimes.
+ */
+@Entity
+@Table(name = "daily_order_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"rollup_date", "status", "city"})
+})
+public class DailyOrderRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "total_centimes", nullable = false)
+    private Long totalCentimes;
+
+    // Default constructor
+    public DailyOrderRollup() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getRollupDate() { return rollupDate; }
+    public void setRollupDate(LocalDate rollupDate) { this.rollupDate = rollupDate; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public Long getOrderCount() { return orderCount; }
+    public void setOrderCount(Long orderCount) { this.orderCount = orderCount; }
+
+    public Long getTotalCentimes() { return totalCentimes; }
+    public void setTotalCentimes(Long totalCentimes) { this.totalCentimes = totalCentimes; }
+}
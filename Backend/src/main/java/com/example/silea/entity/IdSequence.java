@@ -0,0 +1,30 @@
+package com.example.silea.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Named counter handing out blocks of values (hi/lo); see OrderNumberAllocator.
+ * Also holds single-value markers, such as the completed rollup backfill (OrderRollupService).
+ */
+@Entity
+@Table(name = "id_sequences")
+public class IdSequence {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // First value not yet reserved by any instance
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    // Default constructor
+    public IdSequence() {}
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Long getNextValue() { return nextValue; }
+    public void setNextValue(Long nextValue) { this.nextValue = nextValue; }
+}
@@ -38,6 +38,11 @@ public class OrderItem {
     @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
     private BigDecimal totalPrice;
     
+    // Units were taken from tracked stock at checkout, so a cancellation gives them back
+    @JsonIgnore
+    @Column(name = "stock_reserved")
+    private Boolean stockReserved = false;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -119,6 +124,14 @@ public class OrderItem {
         this.totalPrice = totalPrice;
     }
     
+    public Boolean getStockReserved() {
+        return stockReserved;
+    }
+    
+    public void setStockReserved(Boolean stockReserved) {
+        this.stockReserved = stockReserved;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,31 @@
+package com.example.silea.entity;
+
+import com.example.silea.enums.OrderStatus;
+import jakarta.persistence.*;
+
+/**
+ * The status an order is currently counted under in the daily rollups; see OrderRollupService.
+ * An order without a row is not counted yet.
+ */
+@Entity
+@Table(name = "order_rollup_members")
+public class OrderRollupMember {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OrderStatus status;
+
+    // Default constructor
+    public OrderRollupMember() {}
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+}
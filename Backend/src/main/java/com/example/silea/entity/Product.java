@@ -4,15 +4,19 @@ import com.example.silea.enums.ProductStatus;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_created_at_id", columnList = "created_at, id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Product {
     
@@ -68,13 +72,26 @@ public class Product {
     @JsonIgnore  // Prevent circular reference - products don't need to expose their order items
     private List<OrderItem> orderItems;
     
-    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Loaded on demand, for a whole page of products at once
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<ProductSizePrice> sizePrices;
     
-    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @OrderBy("displayOrder ASC")
     private List<ProductImage> images;
     
+    // Price in centimes, derived once per price value for the pricing code; cached products are
+    // shared between threads, and the volatile source publishes the centimes written before it
+    @Transient
+    @JsonIgnore
+    private volatile BigDecimal centimesSource;
+    
+    @Transient
+    @JsonIgnore
+    private long priceCentimes;
+    
     // Default constructor
     public Product() {}
     
@@ -145,6 +162,20 @@ public class Product {
         this.price = price;
     }
     
+    /**
+     * Price in centimes (1/100 MAD)
+     */
+    @JsonIgnore
+    public long getPriceCentimes() {
+        BigDecimal current = price;
+        if (current != centimesSource) {
+            // Hibernate writes the field directly, so compare against the value the centimes came from
+            priceCentimes = current.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            centimesSource = current;
+        }
+        return priceCentimes;
+    }
+    
     public Boolean getAvailable() {
         return available;
     }
@@ -0,0 +1,55 @@
+package com.example.silea.entity;
+
+import com.example.silea.enums.ProductSize;
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Units of a product size not yet handed to any instance; see StockService.
+ * Sizes without a row are not stock-tracked (unlimited).
+ */
+@Entity
+@Table(name = "product_stock", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"product_id", "size"})
+})
+public class ProductStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProductSize size;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Default constructor
+    public ProductStock() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public ProductSize getSize() { return size; }
+    public void setSize(ProductSize size) { this.size = size; }
+
+    public Long getQuantity() { return quantity; }
+    public void setQuantity(Long quantity) { this.quantity = quantity; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,9 @@
+package com.example.silea.enums;
+
+/**
+ * Side effects delivered through the outbox; the aggregate id is the order id
+ */
+public enum OutboxEventType {
+    MONDAY_ORDER_ITEM,
+    WHATSAPP_ORDER_CONFIRMATION
+}
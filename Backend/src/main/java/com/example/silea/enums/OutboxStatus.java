@@ -0,0 +1,8 @@
+package com.example.silea.enums;
+
+public enum OutboxStatus {
+    PENDING,    // Waiting for its next attempt
+    PROCESSING, // Claimed by a dispatcher worker
+    SENT,       // Delivered
+    DEAD        // Gave up after the maximum number of attempts
+}
@@ -21,11 +21,13 @@ public enum ProductSize {
     private final String code;
     private final String displayName;
     private final BigDecimal priceMultiplier;
+    private final int multiplierPercent;
     
     ProductSize(String code, String displayName, BigDecimal priceMultiplier) {
         this.code = code;
         this.displayName = displayName;
         this.priceMultiplier = priceMultiplier;
+        this.multiplierPercent = priceMultiplier.movePointRight(2).intValueExact();
     }
     
     public String getCode() {
@@ -40,6 +42,13 @@ public enum ProductSize {
         return priceMultiplier;
     }
     
+    /**
+     * Price multiplier as an integer percentage (0.42 -> 42), for centime arithmetic
+     */
+    public int getMultiplierPercent() {
+        return multiplierPercent;
+    }
+    
     /**
      * Check if this size is for oil products
      */
@@ -47,6 +56,18 @@ public enum ProductSize {
         return this == OIL_5L || this == OIL_2L || this == OIL_1L;
     }
     
+    /**
+     * Volume in litres for oil sizes, 0 for the others
+     */
+    public double getLiters() {
+        switch (this) {
+            case OIL_5L: return 5.0;
+            case OIL_2L: return 2.0;
+            case OIL_1L: return 1.0;
+            default: return 0.0;
+        }
+    }
+    
     /**
      * Check if this size is for honey products
      */
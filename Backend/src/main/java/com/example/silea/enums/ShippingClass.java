@@ -0,0 +1,10 @@
+package com.example.silea.enums;
+
+/**
+ * Shipping classes a product category can belong to, in priority order:
+ * when a cart mixes classes the first one present decides the rate
+ */
+public enum ShippingClass {
+    OIL,
+    HONEY
+}
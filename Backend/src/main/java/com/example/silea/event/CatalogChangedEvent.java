@@ -0,0 +1,32 @@
+package com.example.silea.event;
+
+/**
+ * Published whenever products, their images/size prices or categories change.
+ * Listeners react after the surrounding transaction commits.
+ */
+public class CatalogChangedEvent {
+
+    private final Long productId;
+
+    /**
+     * @param productId the changed product, or null when the change is not limited to a single product
+     */
+    public CatalogChangedEvent(Long productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * Change affecting the whole catalog (categories, bulk operations)
+     */
+    public static CatalogChangedEvent all() {
+        return new CatalogChangedEvent(null);
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public boolean isSingleProduct() {
+        return productId != null;
+    }
+}
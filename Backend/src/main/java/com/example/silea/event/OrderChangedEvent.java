@@ -0,0 +1,56 @@
+package com.example.silea.event;
+
+import com.example.silea.entity.Order;
+import com.example.silea.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published when an order is created or its status changes.
+ * Listeners react after the surrounding transaction commits.
+ */
+public class OrderChangedEvent {
+
+    private final Long orderId;
+    private final String orderNumber;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+    private final LocalDateTime orderDate;
+    private final BigDecimal total;
+    private final String shippingCity;
+
+    private OrderChangedEvent(Order order, OrderStatus previousStatus) {
+        this.orderId = order.getId();
+        this.orderNumber = order.getOrderNumber();
+        this.previousStatus = previousStatus;
+        this.status = order.getStatus();
+        this.orderDate = order.getOrderDate();
+        this.total = order.getTotal();
+        this.shippingCity = order.getShippingCity();
+    }
+
+    public static OrderChangedEvent created(Order order) {
+        return new OrderChangedEvent(order, null);
+    }
+
+    public static OrderChangedEvent statusChanged(Order order, OrderStatus previousStatus) {
+        return new OrderChangedEvent(order, previousStatus);
+    }
+
+    public Long getOrderId() { return orderId; }
+    public String getOrderNumber() { return orderNumber; }
+
+    /**
+     * Status before the change, or null for a new order
+     */
+    public OrderStatus getPreviousStatus() { return previousStatus; }
+    public OrderStatus getStatus() { return status; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public BigDecimal getTotal() { return total; }
+    public String getShippingCity() { return shippingCity; }
+
+    public boolean isCreated() {
+        return previousStatus == null;
+    }
+}
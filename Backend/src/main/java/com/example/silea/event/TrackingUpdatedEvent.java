@@ -0,0 +1,33 @@
+package com.example.silea.event;
+
+import com.example.silea.entity.OrderTracking;
+import com.example.silea.enums.TrackingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a tracking update is added to an order.
+ * Listeners react after the surrounding transaction commits.
+ */
+public class TrackingUpdatedEvent {
+
+    private final Long orderId;
+    private final String orderNumber;
+    private final TrackingStatus status;
+    private final String location;
+    private final LocalDateTime statusDate;
+
+    public TrackingUpdatedEvent(OrderTracking tracking) {
+        this.orderId = tracking.getOrder().getId();
+        this.orderNumber = tracking.getOrder().getOrderNumber();
+        this.status = tracking.getStatus();
+        this.location = tracking.getLocation();
+        this.statusDate = tracking.getStatusDate();
+    }
+
+    public Long getOrderId() { return orderId; }
+    public String getOrderNumber() { return orderNumber; }
+    public TrackingStatus getStatus() { return status; }
+    public String getLocation() { return location; }
+    public LocalDateTime getStatusDate() { return statusDate; }
+}
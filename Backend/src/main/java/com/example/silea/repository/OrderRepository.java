@@ -2,7 +2,10 @@ package com.example.silea.repository;
 
 import com.example.silea.entity.Order;
 import com.example.silea.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,6 +18,37 @@ import java.util.Optional;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Newest orders first, without a count query (pageable only limits/offsets)
+    @EntityGraph(attributePaths = {"customer"})
+    @Query("SELECT o FROM Order o ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findLatest(Pageable pageable);
+
+    // Order with everything notifications need (customer, items and their products)
+    @EntityGraph(attributePaths = {"customer", "orderItems", "orderItems.product"})
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findForNotificationById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.updatedAt = o.orderDate WHERE o.updatedAt IS NULL")
+    int fillMissingUpdatedAt();
+
+    // Change feed: orders modified up to :until, oldest change first
+    @EntityGraph(attributePaths = {"customer"})
+    @Query("SELECT o FROM Order o WHERE o.updatedAt <= :until ORDER BY o.updatedAt ASC, o.id ASC")
+    List<Order> findChangedUntil(@Param("until") LocalDateTime until, Pageable pageable);
+
+    // Change feed: orders modified after the (updatedAt, id) watermark and up to :until
+    @EntityGraph(attributePaths = {"customer"})
+    @Query("SELECT o FROM Order o WHERE (o.updatedAt > :updatedAt OR (o.updatedAt = :updatedAt AND o.id > :id)) " +
+           "AND o.updatedAt <= :until ORDER BY o.updatedAt ASC, o.id ASC")
+    List<Order> findChangedAfter(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id,
+                                 @Param("until") LocalDateTime until, Pageable pageable);
+
+    // Keyset page: orders strictly after the (orderDate, id) cursor in newest-first order
+    @EntityGraph(attributePaths = {"customer"})
+    @Query("SELECT o FROM Order o WHERE o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id) ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findLatestBefore(@Param("orderDate") LocalDateTime orderDate, @Param("id") Long id, Pageable pageable);
+
     // Find order by order number
     Optional<Order> findByOrderNumber(String orderNumber);
 
@@ -60,6 +94,21 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.estimatedDeliveryDate < :today AND o.status != 'DELIVERED'")
     List<Order> findOverdueOrders(@Param("today") LocalDateTime today);
 
+    // Per status: order count, orders placed since todayStart, delivered revenue since revenueSince
+    @Query("SELECT o.status, COUNT(o), " +
+           "SUM(CASE WHEN o.orderDate >= :todayStart THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN o.orderDate >= :revenueSince THEN o.total ELSE 0 END) " +
+           "FROM Order o GROUP BY o.status")
+    List<Object[]> countByStatusWithTodayAndRevenue(@Param("todayStart") LocalDateTime todayStart,
+                                                    @Param("revenueSince") LocalDateTime revenueSince);
+
+    // Delivered revenue from a date-time (inclusive) until another (exclusive)
+    @Query("SELECT SUM(o.total) FROM Order o WHERE o.orderDate >= :from AND o.orderDate < :until AND o.status = 'DELIVERED'")
+    BigDecimal getDeliveredRevenueFrom(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+
+    @Query("SELECT MIN(o.orderDate) FROM Order o")
+    LocalDateTime findFirstOrderDate();
+
     // Get total revenue in date range
     @Query("SELECT SUM(o.total) FROM Order o WHERE o.orderDate BETWEEN :startDate AND :endDate AND o.status = 'DELIVERED'")
     BigDecimal getTotalRevenueBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
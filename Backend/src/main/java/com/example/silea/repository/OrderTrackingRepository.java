@@ -68,6 +68,10 @@ public interface OrderTrackingRepository extends JpaRepository<OrderTracking, Lo
     @Query("SELECT DISTINCT ot.order FROM OrderTracking ot WHERE ot.order.status IN ('PROCESSING', 'SHIPPED') AND ot.createdAt < :threshold")
     List<com.example.silea.entity.Order> findOrdersWithDelayedTracking(@Param("threshold") LocalDateTime threshold);
 
+    // Number of those orders, without loading them
+    @Query("SELECT COUNT(DISTINCT o.id) FROM OrderTracking ot JOIN ot.order o WHERE o.status IN ('PROCESSING', 'SHIPPED') AND ot.createdAt < :threshold")
+    long countOrdersWithDelayedTracking(@Param("threshold") LocalDateTime threshold);
+
     // Find tracking records by carrier
     List<OrderTracking> findByCarrierContainingIgnoreCase(String carrier);
 
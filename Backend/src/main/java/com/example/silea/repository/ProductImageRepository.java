@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,4 +27,42 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     void clearPrimaryForProduct(@Param("productId") Long productId);
     
     long countByProductId(Long productId);
+
+    // Product id and primary flag of an image, locking the image row until the transaction ends
+    @Query(value = "SELECT product_id AS productId, is_primary AS isPrimary FROM product_images WHERE id = :imageId FOR UPDATE",
+           nativeQuery = true)
+    Optional<ImageOwner> findOwnerByIdForUpdate(@Param("imageId") Long imageId);
+
+    @Modifying
+    @Query("DELETE FROM ProductImage pi WHERE pi.id = :imageId")
+    int deleteByImageId(@Param("imageId") Long imageId);
+
+    /**
+     * Make one image primary and clear the flag on the product's other images
+     */
+    @Modifying
+    @Query("UPDATE ProductImage pi SET pi.isPrimary = CASE WHEN pi.id = :imageId THEN true ELSE false END " +
+           "WHERE pi.product.id = :productId")
+    int setPrimaryForProduct(@Param("productId") Long productId, @Param("imageId") Long imageId);
+
+    /**
+     * Promote the first image (by display order) to primary
+     */
+    @Modifying
+    @Query(value = "UPDATE product_images SET is_primary = true WHERE product_id = :productId " +
+                   "ORDER BY display_order, id LIMIT 1", nativeQuery = true)
+    int promoteFirstImage(@Param("productId") Long productId);
+
+    /**
+     * Set display_order to the position of each id in the given list; images of other products are untouched
+     */
+    @Modifying
+    @Query(value = "UPDATE product_images SET display_order = FIELD(id, :imageIds) - 1 " +
+                   "WHERE product_id = :productId AND id IN (:imageIds)", nativeQuery = true)
+    int reorder(@Param("productId") Long productId, @Param("imageIds") Collection<Long> imageIds);
+
+    interface ImageOwner {
+        Long getProductId();
+        Boolean getIsPrimary();
+    }
 }
@@ -1,18 +1,71 @@
 package com.example.silea.repository;
 
+import com.example.silea.dto.ProductListItem;
 import com.example.silea.entity.Product;
 import com.example.silea.enums.ProductStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    String LIST_ITEM_SELECT = "SELECT new com.example.silea.dto.ProductListItem(p.id, p.name, p.nameAr, p.price, p.available, p.imageUrl, p.status, p.featured, c.id, c.name, c.nameAr, c.slug, p.createdAt, p.updatedAt) FROM Product p LEFT JOIN p.category c";
+
+    // Product detail: category and size prices in the same select, images batch-loaded
+    @EntityGraph(attributePaths = {"category", "sizePrices"})
+    Optional<Product> findWithDetailsById(Long id);
+
+    // Same fetch plan for a batch of ids (cart and checkout lines)
+    @EntityGraph(attributePaths = {"category", "sizePrices"})
+    List<Product> findWithDetailsByIdIn(Collection<Long> ids);
+
+    // Paged listing with the category joined (collections are batch-loaded per page)
+    @Override
+    @EntityGraph(attributePaths = {"category"})
+    Page<Product> findAll(Pageable pageable);
+
+    // Newest products first (first keyset page)
+    @EntityGraph(attributePaths = {"category"})
+    @Query("SELECT p FROM Product p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findLatest(Pageable pageable);
+
+    // Keyset page: products strictly after the (createdAt, id) cursor in newest-first order
+    @EntityGraph(attributePaths = {"category"})
+    @Query("SELECT p FROM Product p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findLatestBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // Listing projections (no description columns, no collections)
+    @Query(LIST_ITEM_SELECT + " WHERE c.id = :categoryId AND p.status = :status")
+    List<ProductListItem> findListItemsByCategoryIdAndStatus(@Param("categoryId") Long categoryId, @Param("status") ProductStatus status);
+
+    @Query(LIST_ITEM_SELECT + " WHERE p.featured = true AND p.status = 'ACTIVE' ORDER BY p.createdAt DESC")
+    List<ProductListItem> findHomepageListItems();
+
+    @Query(LIST_ITEM_SELECT)
+    List<ProductListItem> findAllListItems();
+
+    @Query(LIST_ITEM_SELECT + " WHERE p.id = :id")
+    Optional<ProductListItem> findListItemById(@Param("id") Long id);
+
+    // Base prices for the price table: [id, price]
+    @Query("SELECT p.id, p.price FROM Product p")
+    List<Object[]> findAllPrices();
+
+    @Query("SELECT p.price FROM Product p WHERE p.id = :id")
+    Optional<BigDecimal> findPriceById(@Param("id") Long id);
+
     // Find active products only
     List<Product> findByStatus(ProductStatus status);
 
@@ -71,4 +124,11 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Find available products
     @Query("SELECT p FROM Product p WHERE p.available = true AND p.status = 'ACTIVE'")
     List<Product> findAvailableProducts();
-}
\ No newline at end of file
+
+    // Copy the primary image URL (or null when there is none) into the legacy image_url column
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products p SET p.image_url = (SELECT pi.image_url FROM product_images pi " +
+                   "WHERE pi.product_id = p.id AND pi.is_primary = true ORDER BY pi.display_order, pi.id LIMIT 1), " +
+                   "p.updated_at = :now WHERE p.id = :productId", nativeQuery = true)
+    int syncImageUrl(@Param("productId") Long productId, @Param("now") LocalDateTime now);
+}
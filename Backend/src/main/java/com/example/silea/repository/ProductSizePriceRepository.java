@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,13 @@ import java.util.Optional;
 public interface ProductSizePriceRepository extends JpaRepository<ProductSizePrice, Long> {
     
     List<ProductSizePrice> findByProductId(Long productId);
+
+    // Size prices of a page of products in one query: [productId, size, price]
+    @Query("SELECT psp.product.id, psp.size, psp.price FROM ProductSizePrice psp WHERE psp.product.id IN :productIds")
+    List<Object[]> findPricesByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT psp.product.id, psp.size, psp.price FROM ProductSizePrice psp")
+    List<Object[]> findAllPrices();
     
     Optional<ProductSizePrice> findByProductIdAndSize(Long productId, ProductSize size);
     
@@ -0,0 +1,26 @@
+package com.example.silea.repository;
+
+import com.example.silea.entity.ProductStock;
+import com.example.silea.enums.ProductSize;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductStockRepository extends JpaRepository<ProductStock, Long> {
+
+    List<ProductStock> findByProductIdOrderBySize(Long productId);
+
+    Optional<ProductStock> findByProductIdAndSize(Long productId, ProductSize size);
+
+    // Row lock held only while a block of units is leased
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStock s WHERE s.productId = :productId AND s.size = :size")
+    Optional<ProductStock> findForUpdate(@Param("productId") Long productId, @Param("size") ProductSize size);
+}
@@ -0,0 +1,100 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Product;
+import com.example.silea.enums.ProductSize;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Everything the cart endpoints report about a cart (line prices, subtotal, oil volume,
+ * category mix, shipping, tax, validation errors), computed by {@link CartService#evaluate}
+ * in a single pass over the items. Money is kept in centimes and converted on access.
+ */
+public final class CartEvaluation {
+
+    private final List<Line> lines;
+    private final long subtotalCentimes;
+    private final int totalItems;
+    private final double oilLiters;
+    private final boolean hasOil;
+    private final boolean hasHoney;
+    private final String city;
+    private final BigDecimal shipping;
+    private final boolean freeShipping;
+    private final long taxCentimes;
+    private final List<String> errors;
+
+    CartEvaluation(List<Line> lines, long subtotalCentimes, int totalItems, double oilLiters, boolean hasOil,
+                   boolean hasHoney, String city, BigDecimal shipping, boolean freeShipping, long taxCentimes,
+                   List<String> errors) {
+        this.lines = lines;
+        this.subtotalCentimes = subtotalCentimes;
+        this.totalItems = totalItems;
+        this.oilLiters = oilLiters;
+        this.hasOil = hasOil;
+        this.hasHoney = hasHoney;
+        this.city = city;
+        this.shipping = shipping;
+        this.freeShipping = freeShipping;
+        this.taxCentimes = taxCentimes;
+        this.errors = errors;
+    }
+
+    public List<Line> getLines() { return lines; }
+    public BigDecimal getSubtotal() { return Money.toAmount(subtotalCentimes); }
+    public long getSubtotalCentimes() { return subtotalCentimes; }
+    public int getTotalItems() { return totalItems; }
+    public double getOilLiters() { return oilLiters; }
+    public boolean hasOil() { return hasOil; }
+    public boolean hasHoney() { return hasHoney; }
+    public String getCity() { return city; }
+    public BigDecimal getTax() { return Money.toAmount(taxCentimes); }
+    public List<String> getErrors() { return errors; }
+    public boolean isFreeShipping() { return freeShipping; }
+
+    /**
+     * Shipping cost, or null when the cart cannot be delivered to the city (oil outside the oil delivery cities)
+     */
+    public BigDecimal getShipping() { return shipping; }
+
+    public boolean isShippingAvailable() {
+        return shipping != null;
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * Subtotal + shipping + tax
+     */
+    public BigDecimal getTotal() {
+        long shippingCentimes = shipping != null ? Money.toCentimes(shipping) : 0;
+        return Money.toAmount(subtotalCentimes + shippingCentimes + taxCentimes);
+    }
+
+    public static final class Line {
+        private final Product product;
+        private final ProductSize size;
+        private final int quantity;
+        private final long unitPriceCentimes;
+        private final long lineTotalCentimes;
+
+        Line(Product product, ProductSize size, int quantity, long unitPriceCentimes, long lineTotalCentimes) {
+            this.product = product;
+            this.size = size;
+            this.quantity = quantity;
+            this.unitPriceCentimes = unitPriceCentimes;
+            this.lineTotalCentimes = lineTotalCentimes;
+        }
+
+        public Product getProduct() { return product; }
+        public ProductSize getSize() { return size; }
+        public int getQuantity() { return quantity; }
+        public BigDecimal getUnitPrice() { return Money.toAmount(unitPriceCentimes); }
+        public BigDecimal getLineTotal() { return Money.toAmount(lineTotalCentimes); }
+        public long getUnitPriceCentimes() { return unitPriceCentimes; }
+        public long getLineTotalCentimes() { return lineTotalCentimes; }
+    }
+}
@@ -2,65 +2,127 @@ package com.example.silea.service;
 
 import com.example.silea.entity.Product;
 import com.example.silea.enums.ProductSize;
+import com.example.silea.enums.ProductStatus;
+import com.example.silea.enums.ShippingClass;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class CartService {
 
+    private static final int TAX_PERCENT = 20;
+
+    private final ShippingRulesEngine shippingRules;
+    private final PriceResolver priceResolver;
+
+    public CartService(ShippingRulesEngine shippingRules, PriceResolver priceResolver) {
+        this.shippingRules = shippingRules;
+        this.priceResolver = priceResolver;
+    }
+
+    /**
+     * Evaluate a cart in one pass over its items: line prices, subtotal, oil volume and
+     * shipping classes are accumulated together, then shipping and tax derive from those totals.
+     *
+     * @param city delivery city, or null when unknown (default shipping rate, no delivery check)
+     */
+    public CartEvaluation evaluate(List<CartItem> items, String city) {
+        List<CartEvaluation.Line> lines = new ArrayList<>(items.size());
+        List<String> errors = new ArrayList<>(0);
+        long subtotal = 0;
+        int totalItems = 0;
+        double oilLiters = 0.0;
+        Set<ShippingClass> classes = EnumSet.noneOf(ShippingClass.class);
+
+        for (CartItem item : items) {
+            Product product = item.getProduct();
+            long unitPrice = priceResolver.resolve(product, item.getSize());
+            long lineTotal = Money.lineTotal(unitPrice, item.getQuantity());
+            lines.add(new CartEvaluation.Line(product, item.getSize(), item.getQuantity(), unitPrice, lineTotal));
+            subtotal = Math.addExact(subtotal, lineTotal);
+            totalItems += item.getQuantity();
+
+            ShippingClass shippingClass = shippingRules.classify(product.getCategory());
+            if (shippingClass != null) {
+                classes.add(shippingClass);
+            }
+            if (shippingClass == ShippingClass.OIL && item.getSize() != null) {
+                oilLiters += item.getSize().getLiters() * item.getQuantity();
+            }
+
+            String sizeError = sizeError(product, item.getSize(), shippingClass);
+            if (sizeError != null) {
+                errors.add(sizeError);
+            }
+            if (product.getStatus() != ProductStatus.ACTIVE) {
+                errors.add("Product '" + product.getName() + "' is not available");
+            } else if (!product.getAvailable()) {
+                errors.add("Product '" + product.getName() + "' is currently unavailable");
+            }
+        }
+
+        ShippingRulesEngine.Quote quote = shippingRules.quote(city, subtotal, classes, oilLiters);
+        long tax = Money.percentOf(subtotal, TAX_PERCENT);
+
+        return new CartEvaluation(lines, subtotal, totalItems, oilLiters, classes.contains(ShippingClass.OIL),
+                classes.contains(ShippingClass.HONEY), city, quote.getShipping(), quote.isFreeShipping(), tax, errors);
+    }
+
+    /**
+     * Why a product cannot be sold in a size (an oil size for honey or the reverse), or null when it can
+     */
+    public String sizeError(Product product, ProductSize size) {
+        return sizeError(product, size, shippingRules.classify(product.getCategory()));
+    }
+
+    private static String sizeError(Product product, ProductSize size, ShippingClass shippingClass) {
+        if (size == null) {
+            return null;
+        }
+        if (shippingClass == ShippingClass.OIL && !size.isOilSize()) {
+            return "Product '" + product.getName() + "' is oil. Use sizes: OIL_5L, OIL_2L, or OIL_1L";
+        }
+        if (shippingClass == ShippingClass.HONEY && !size.isHoneySize()) {
+            return "Product '" + product.getName() + "' is honey. Use sizes: HONEY_1KG, HONEY_500G, or HONEY_250G";
+        }
+        return null;
+    }
+
+    /**
+     * Cart subtotal from which shipping is free
+     */
+    public BigDecimal getFreeShippingThreshold() {
+        return shippingRules.getFreeShippingThreshold();
+    }
+
     /**
      * Calculate cart total with size support
      */
     public BigDecimal calculateTotal(List<CartItem> items) {
-        return items.stream()
-                .map(item -> {
-                    BigDecimal unitPrice = calculateUnitPrice(item.getProduct(), item.getSize());
-                    return unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return evaluate(items, null).getSubtotal();
     }
     
     /**
-     * Calculate unit price based on product base price and size
+     * Unit price of a product in a size (size price override, else base price times the size multiplier)
      */
     public BigDecimal calculateUnitPrice(Product product, ProductSize size) {
-        if (size == null) {
-            return product.getPrice();
-        }
-        return product.getPrice()
-                .multiply(size.getPriceMultiplier())
-                .setScale(2, RoundingMode.HALF_UP);
+        return priceResolver.resolvePrice(product, size);
     }
 
     /**
      * Validate cart items (check product availability)
      */
     public CartValidationResult validateCart(List<CartItem> items, ProductService productService) {
-        List<String> errors = new ArrayList<>();
-        List<String> warnings = new ArrayList<>();
-
-        for (CartItem item : items) {
-            Product product = item.getProduct();
-
-            // Check if product exists and is active
-            if (product.getStatus() != com.example.silea.enums.ProductStatus.ACTIVE) {
-                errors.add("Product '" + product.getName() + "' is not available");
-                continue;
-            }
-
-            // Check product availability
-            if (!product.getAvailable()) {
-                errors.add("Product '" + product.getName() + "' is currently unavailable");
-            }
-        }
-
-        return new CartValidationResult(errors.isEmpty(), errors, warnings);
+        CartEvaluation evaluation = evaluate(items, null);
+        return new CartValidationResult(evaluation.isValid(), evaluation.getErrors(), new ArrayList<>());
     }
 
     /**
@@ -75,153 +137,34 @@ public class CartService {
      * Check if cart has minimum order value
      */
     public boolean hasMinimumOrderValue(List<CartItem> items, BigDecimal minimumValue) {
-        BigDecimal total = calculateTotal(items);
-        return total.compareTo(minimumValue) >= 0;
+        return evaluate(items, null).getSubtotal().compareTo(minimumValue) >= 0;
     }
 
     /**
      * Get cart summary
      */
     public CartSummary getCartSummary(List<CartItem> items) {
-        BigDecimal subtotal = calculateTotal(items);
-        int totalItems = items.stream().mapToInt(CartItem::getQuantity).sum();
-        BigDecimal shipping = calculateShipping(items);
-        BigDecimal tax = subtotal.multiply(BigDecimal.valueOf(0.20)); // 20% tax
-        BigDecimal total = subtotal.add(shipping).add(tax);
-
-        return new CartSummary(subtotal, shipping, tax, total, totalItems);
+        return CartSummary.of(evaluate(items, null));
     }
 
     /**
-     * Calculate shipping cost based on city and product category
-     * 
-     * FREE SHIPPING CONDITIONS:
-     *   - Cart total >= 700 MAD (any products)
-     *   - Oil products: 10L or more
-     * 
-     * For HONEY products:
-     *   - Tanger: 20 MAD
-     *   - Other cities: 35 MAD
-     * 
-     * For OIL products:
-     *   - Tanger, Casablanca, Beni Mellal, Mohammedia: 30 MAD
-     *   - Other cities: NOT AVAILABLE
-     * 
+     * Calculate shipping cost based on city and cart content, using the shipping rules
+     * (zones, category classes and free-shipping thresholds from shipping-rules.json).
+     * Returns -1 when the cart cannot be delivered to the city (oil outside the oil zones).
+     *
      * Delivery time: 24-72h
      */
     public BigDecimal calculateShipping(String city, List<CartItem> items) {
-        if (city == null || city.trim().isEmpty()) {
-            return BigDecimal.valueOf(35); // Default
-        }
-        
-        // Calculate cart subtotal
-        BigDecimal subtotal = calculateTotal(items);
-        
-        // FREE SHIPPING: Cart total >= 700 MAD
-        if (subtotal.compareTo(BigDecimal.valueOf(700)) >= 0) {
-            return BigDecimal.ZERO;
-        }
-        
-        String normalizedCity = city.trim().toLowerCase();
-        
-        // Check if cart contains oil products and calculate total oil volume
-        double totalOilVolume = 0.0;
-        boolean hasOilProducts = false;
-        boolean hasHoneyProducts = false;
-        
-        for (CartItem item : items) {
-            String categoryName = item.getProduct().getCategory().getName().toLowerCase();
-            
-            if (categoryName.contains("oil") || categoryName.contains("huile") || categoryName.contains("زيت")) {
-                hasOilProducts = true;
-                
-                // Calculate oil volume from size
-                if (item.getSize() != null) {
-                    String sizeCode = item.getSize().getCode();
-                    double liters = 0.0;
-                    
-                    // Extract liters from size code (e.g., "OIL_250ML" = 0.25L, "OIL_5L" = 5L)
-                    if (sizeCode.contains("5L")) liters = 5.0;
-                    else if (sizeCode.contains("3L")) liters = 3.0;
-                    else if (sizeCode.contains("2L")) liters = 2.0;
-                    else if (sizeCode.contains("1L")) liters = 1.0;
-                    else if (sizeCode.contains("750ML")) liters = 0.75;
-                    else if (sizeCode.contains("500ML")) liters = 0.5;
-                    else if (sizeCode.contains("250ML")) liters = 0.25;
-                    
-                    totalOilVolume += liters * item.getQuantity();
-                }
-            }
-            
-            if (categoryName.contains("honey") || categoryName.contains("miel") || categoryName.contains("عسل")) {
-                hasHoneyProducts = true;
-            }
-        }
-        
-        // FREE SHIPPING: 10L or more of oil
-        if (hasOilProducts && totalOilVolume >= 10.0) {
-            return BigDecimal.ZERO;
-        }
-        
-        // Oil delivery cities (Tanger, Casablanca, Beni Mellal, Mohammedia)
-        boolean isOilDeliveryCity = normalizedCity.equals("tanger") || 
-                                   normalizedCity.equals("tangier") ||
-                                   normalizedCity.equals("طنجة") ||
-                                   normalizedCity.equals("casablanca") ||
-                                   normalizedCity.equals("الدار البيضاء") ||
-                                   normalizedCity.equals("beni mellal") ||
-                                   normalizedCity.equals("béni mellal") ||
-                                   normalizedCity.equals("بني ملال") ||
-                                   normalizedCity.equals("mohammedia") ||
-                                   normalizedCity.equals("المحمدية");
-        
-        // If cart has oil products and city is not in delivery list, return error indicator
-        if (hasOilProducts && !isOilDeliveryCity) {
-            return BigDecimal.valueOf(-1); // Error indicator: oil not deliverable
-        }
-        
-        // If only oil products or mixed cart in valid city
-        if (hasOilProducts && isOilDeliveryCity) {
-            return BigDecimal.valueOf(30); // 30 MAD for all oil delivery cities
-        }
-        
-        // Honey-only products: original logic
-        if (hasHoneyProducts && !hasOilProducts) {
-            // Tanger: 20 MAD
-            if (normalizedCity.equals("tanger") || 
-                normalizedCity.equals("tangier") || 
-                normalizedCity.equals("طنجة")) {
-                return BigDecimal.valueOf(20);
-            }
-            // Other cities: 35 MAD
-            return BigDecimal.valueOf(35);
-        }
-        
-        // Default
-        return BigDecimal.valueOf(35);
+        CartEvaluation evaluation = evaluate(items, city);
+        return evaluation.isShippingAvailable() ? evaluation.getShipping() : BigDecimal.valueOf(-1);
     }
     
     /**
-     * Calculate shipping cost based on city only (for backward compatibility)
-     * Tanger: 20 MAD
-     * Other cities: 35 MAD
+     * Calculate shipping cost based on city only (the zone's default rate)
      * Delivery time: 24-72h
      */
     public BigDecimal calculateShipping(String city) {
-        if (city == null || city.trim().isEmpty()) {
-            return BigDecimal.valueOf(35); // Default to other cities
-        }
-        
-        String normalizedCity = city.trim().toLowerCase();
-        // Check if city is Tanger (handle various spellings)
-        if (normalizedCity.equals("tanger") || 
-            normalizedCity.equals("tangier") || 
-            normalizedCity.equals("طنجة")) {
-            return BigDecimal.valueOf(20);
-        }
-        
-        // All other cities
-        return BigDecimal.valueOf(35);
+        return shippingRules.cityRate(city);
     }
     
     /**
@@ -236,15 +179,6 @@ public class CartService {
         return info;
     }
 
-    /**
-     * Calculate shipping cost (simple implementation - deprecated, use calculateShipping(city) instead)
-     */
-    @Deprecated
-    private BigDecimal calculateShipping(List<CartItem> items) {
-        // Default shipping cost for other cities
-        return BigDecimal.valueOf(35);
-    }
-
     // DTO classes
     public static class CartItem {
         private final Product product;
@@ -290,6 +224,8 @@ public class CartService {
         private final BigDecimal tax;
         private final BigDecimal total;
         private final int totalItems;
+        private String quoteToken;
+        private Instant quoteExpiresAt;
 
         public CartSummary(BigDecimal subtotal, BigDecimal shipping, BigDecimal tax,
                           BigDecimal total, int totalItems) {
@@ -300,10 +236,28 @@ public class CartService {
             this.totalItems = totalItems;
         }
 
+        public static CartSummary of(CartEvaluation evaluation) {
+            return new CartSummary(evaluation.getSubtotal(), evaluation.getShipping(), evaluation.getTax(),
+                    evaluation.getTotal(), evaluation.getTotalItems());
+        }
+
+        /**
+         * Attach a signed price quote to pass back as quoteToken when placing the order
+         */
+        public CartSummary withQuote(PriceQuoteService.IssuedQuote quote) {
+            if (quote != null) {
+                this.quoteToken = quote.getToken();
+                this.quoteExpiresAt = quote.getExpiresAt();
+            }
+            return this;
+        }
+
         public BigDecimal getSubtotal() { return subtotal; }
         public BigDecimal getShipping() { return shipping; }
         public BigDecimal getTax() { return tax; }
         public BigDecimal getTotal() { return total; }
         public int getTotalItems() { return totalItems; }
+        public String getQuoteToken() { return quoteToken; }
+        public Instant getQuoteExpiresAt() { return quoteExpiresAt; }
     }
 }
\ No newline at end of file
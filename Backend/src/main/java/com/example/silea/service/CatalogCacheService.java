@@ -0,0 +1,132 @@
+package com.example.silea.service;
+
+import com.example.silea.event.CatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for the public catalog (products, size prices, images, categories).
+ * Entries are bounded in number, expire after a TTL and are dropped as soon as a catalog
+ * write commits. Loaders run in a read-only transaction so cached entities are fully
+ * initialized and can be served outside of any Hibernate session.
+ */
+@Service
+public class CatalogCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCacheService.class);
+
+    private final ConcurrentHashMap<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so loads that started before a write are never stored
+    private final AtomicLong generation = new AtomicLong();
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    public CatalogCacheService(PlatformTransactionManager transactionManager,
+                               @Value("${catalog.cache.max-entries:2000}") int maxEntries,
+                               @Value("${catalog.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * Return the cached value for the key, loading it on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            return (T) entry.value;
+        }
+
+        long loadGeneration = generation.get();
+        T value = readOnlyTransaction.execute(status -> loader.get());
+        if (value == null || generation.get() != loadGeneration) {
+            return value;
+        }
+
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        CacheEntry loaded = new CacheEntry(value, now + ttlMillis);
+        entries.put(key, loaded);
+        // An invalidation may have slipped in between the check and the put
+        if (generation.get() != loadGeneration) {
+            entries.remove(key, loaded);
+        }
+        return value;
+    }
+
+    /**
+     * Return the cached value for the key without loading it, or null on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T peek(String key) {
+        CacheEntry entry = entries.get(key);
+        return entry != null && entry.expiresAt > System.currentTimeMillis() ? (T) entry.value : null;
+    }
+
+    /**
+     * Drop every cached entry
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Invalidate once the catalog write is committed (or immediately outside a transaction)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        invalidateAll();
+        logger.debug("Catalog cache invalidated (product: {})", event.getProductId());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove expired entries, then the oldest tenth if the cache is still full
+     */
+    private void evict(long now) {
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt <= now);
+        int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().expiresAt))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Object value;
+        private final long expiresAt;
+
+        private CacheEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
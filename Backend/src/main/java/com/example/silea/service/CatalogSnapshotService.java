@@ -0,0 +1,220 @@
+package com.example.silea.service;
+
+import com.example.silea.event.CatalogChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ready-to-send JSON for the hottest public reads (featured products, active categories,
+ * products per category), kept as UTF-8 bytes in plain and gzip form.
+ * Snapshots are dropped when a catalog write commits and rebuilt in the background.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private static final String FEATURED = "featured";
+    private static final String CATEGORIES = "categories";
+    private static final String CATEGORY_PREFIX = "category:";
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    // Bumped on every catalog change so a build that raced a write is never stored
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "catalog-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CatalogSnapshotService(ProductService productService, CategoryService categoryService, ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot featuredProducts() {
+        return get(FEATURED);
+    }
+
+    public Snapshot activeCategories() {
+        return get(CATEGORIES);
+    }
+
+    /**
+     * Products of an active category, or null for unknown/inactive categories (not snapshotted)
+     */
+    public Snapshot categoryProducts(Long categoryId) {
+        if (categoryService.findActiveById(categoryId).isEmpty()) {
+            return null;
+        }
+        return get(CATEGORY_PREFIX + categoryId);
+    }
+
+    /**
+     * Write a snapshot as the response body, gzip-encoded when the client accepts it. The gzip
+     * bytes get their own strong ETag, set on the servlet response directly since the catalog
+     * ETag filter already put the plain one there (entity headers would be added beside it).
+     */
+    public ResponseEntity<byte[]> toResponse(Snapshot snapshot, String acceptEncoding, HttpServletResponse response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            String etag = response.getHeader(HttpHeaders.ETAG);
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, CatalogVersionService.gzipETag(etag));
+            }
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.getGzip());
+        }
+        return builder.body(snapshot.getPlain());
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip: an explicit gzip (or x-gzip) entry decides,
+     * otherwise "*"; either counts only with a non-zero q-value
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        // Unreadable weight: treat the coding as not acceptable
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        double q = gzip != null ? gzip : any != null ? any : 0;
+        return q > 0;
+    }
+
+    /**
+     * Drop all snapshots once the write is visible, then rebuild the ones that were in use.
+     * Runs before the catalog version is bumped so new ETags never point at old bytes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        List<String> keys = new ArrayList<>(snapshots.keySet());
+        snapshots.clear();
+        rebuildExecutor.execute(() -> {
+            for (String key : keys) {
+                try {
+                    get(key);
+                } catch (Exception e) {
+                    logger.warn("Failed to rebuild catalog snapshot {}: {}", key, e.getMessage());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private Snapshot get(String key) {
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long buildGeneration = generation.get();
+        snapshot = build(loader(key));
+        if (generation.get() == buildGeneration) {
+            snapshots.put(key, snapshot);
+            if (generation.get() != buildGeneration) {
+                snapshots.remove(key, snapshot);
+            }
+        }
+        return snapshot;
+    }
+
+    private Supplier<Object> loader(String key) {
+        if (FEATURED.equals(key)) {
+            return productService::getHomepageProducts;
+        }
+        if (CATEGORIES.equals(key)) {
+            return categoryService::getActiveCategories;
+        }
+        Long categoryId = Long.valueOf(key.substring(CATEGORY_PREFIX.length()));
+        return () -> productService.getProductsByCategory(categoryId);
+    }
+
+    private Snapshot build(Supplier<Object> loader) {
+        try {
+            byte[] plain = objectMapper.writeValueAsBytes(loader.get());
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(plain.length / 4 + 64);
+            // Built once per catalog change, so spend the CPU on the best ratio
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(plain);
+            }
+            return new Snapshot(plain, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class Snapshot {
+        private final byte[] plain;
+        private final byte[] gzip;
+
+        public Snapshot(byte[] plain, byte[] gzip) {
+            this.plain = plain;
+            this.gzip = gzip;
+        }
+
+        public byte[] getPlain() { return plain; }
+        public byte[] getGzip() { return gzip; }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.silea.service;
+
+import com.example.silea.event.CatalogChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of the public catalog, bumped after every committed catalog write.
+ * Seeded with the boot time so versions handed out before a restart are never reused.
+ *
+ * The version lives in memory and only moves on writes made through this instance, like the
+ * caches, snapshots and price table it stands for, so the application assumes a single
+ * instance. It is deliberately not derived from the products and categories tables: another
+ * instance's write would change the ETag while this instance still serves its old cached
+ * content, and deletes leave no updated_at behind. Running several instances needs a shared
+ * change notification for all of these first.
+ */
+@Service
+public class CatalogVersionService {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Strong ETag for catalog responses
+     */
+    public String currentETag() {
+        return "\"c" + Long.toString(version.get(), 36) + "\"";
+    }
+
+    /**
+     * Strong ETag of the gzip-encoded representation of the same content: its bytes differ,
+     * so it must not share the plain tag
+     */
+    public static String gzipETag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * Runs after the cache and indexes have been refreshed, so a client that sees the
+     * new version can never be served content from before the write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.silea.service;
 
 import com.example.silea.entity.Category;
+import com.example.silea.event.CatalogChangedEvent;
 import com.example.silea.repository.CategoryRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -13,9 +16,14 @@ import java.util.Optional;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CatalogCacheService catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, CatalogCacheService catalogCache,
+                          ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.catalogCache = catalogCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -32,7 +40,9 @@ public class CategoryService {
         category.setDescription(description);
         category.setIsActive(true);
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return saved;
     }
 
     /**
@@ -52,7 +62,9 @@ public class CategoryService {
         category.setNameAr(nameArabic);
         category.setDescription(description);
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return saved;
     }
 
     /**
@@ -63,7 +75,9 @@ public class CategoryService {
                 .orElseThrow(() -> new IllegalArgumentException("Category not found"));
 
         category.setIsActive(isActive);
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return saved;
     }
 
     /**
@@ -90,15 +104,27 @@ public class CategoryService {
     /**
      * Find active category by slug
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Category> findActiveBySlug(String slug) {
-        return categoryRepository.findBySlugAndIsActiveTrue(slug);
+        return Optional.ofNullable(catalogCache.get("category:slug:" + slug,
+                () -> categoryRepository.findBySlugAndIsActiveTrue(slug).orElse(null)));
+    }
+
+    /**
+     * Find active category by ID for public catalog reads
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<Category> findActiveById(Long id) {
+        return Optional.ofNullable(catalogCache.get("category:" + id,
+                () -> categoryRepository.findById(id).filter(c -> Boolean.TRUE.equals(c.getIsActive())).orElse(null)));
     }
 
     /**
      * Get all active categories
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Category> getActiveCategories() {
-        return categoryRepository.findByIsActiveTrue();
+        return catalogCache.get("categories:active", categoryRepository::findByIsActiveTrue);
     }
 
     /**
@@ -129,7 +155,9 @@ public class CategoryService {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new IllegalArgumentException("Category not found"));
         category.setImageUrl(imageUrl);
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
+        return saved;
     }
 
     /**
@@ -145,6 +173,7 @@ public class CategoryService {
         }
 
         categoryRepository.deleteById(categoryId);
+        eventPublisher.publishEvent(CatalogChangedEvent.all());
     }
 
     /**
@@ -0,0 +1,259 @@
+package com.example.silea.service;
+
+import com.example.silea.event.OrderChangedEvent;
+import com.example.silea.event.TrackingUpdatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live admin dashboard feed over Server-Sent Events. Order and tracking events are turned into
+ * messages once, after commit, and fanned out to every connected admin through a bounded
+ * per-subscriber buffer drained by a small sender pool, so a slow or stalled browser never
+ * delays the request that changed the order. A subscriber whose buffer overflows gets its
+ * backlog replaced by a single "resync" message, telling it to reload the dashboard.
+ *
+ * Counter updates come from the in-memory order counters, so connected tabs cost no queries.
+ * EventSource cannot send an Authorization header: an admin first gets a short-lived,
+ * single-use ticket with its JWT, then opens the stream with that ticket.
+ */
+@Service
+public class DashboardFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardFeedService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final OrderCountersService orderCounters;
+    private final ObjectMapper objectMapper;
+    private final long streamTimeoutMs;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long ticketTtlMs;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService sender;
+
+    public DashboardFeedService(OrderCountersService orderCounters, ObjectMapper objectMapper,
+                                @Value("${dashboard.feed.stream-timeout-ms:1800000}") long streamTimeoutMs,
+                                @Value("${dashboard.feed.buffer-size:256}") int bufferSize,
+                                @Value("${dashboard.feed.max-subscribers:50}") int maxSubscribers,
+                                @Value("${dashboard.feed.ticket-ttl-ms:30000}") long ticketTtlMs,
+                                @Value("${dashboard.feed.sender-threads:2}") int senderThreads) {
+        this.orderCounters = orderCounters;
+        this.objectMapper = objectMapper;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.ticketTtlMs = ticketTtlMs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), r -> {
+            Thread thread = new Thread(r, "dashboard-feed-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Single-use ticket for opening the stream, valid for a few seconds
+     */
+    public String issueTicket() {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, System.currentTimeMillis() + ticketTtlMs);
+        return ticket;
+    }
+
+    /**
+     * Consume a ticket; false when it is unknown, already used or expired
+     */
+    public boolean redeemTicket(String ticket) {
+        if (ticket == null) {
+            return false;
+        }
+        Long expiresAt = tickets.remove(ticket);
+        return expiresAt != null && expiresAt >= System.currentTimeMillis();
+    }
+
+    /**
+     * Open a stream that starts with the current counters
+     *
+     * @throws IllegalStateException when the subscriber limit is reached
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many dashboard feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.offer(message("counters", orderCounters.getStatistics()));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("orderId", event.getOrderId());
+        order.put("orderNumber", event.getOrderNumber());
+        order.put("previousStatus", event.getPreviousStatus());
+        order.put("status", event.getStatus());
+        order.put("total", event.getTotal());
+        order.put("shippingCity", event.getShippingCity());
+        order.put("orderDate", event.getOrderDate());
+        broadcast(message(event.isCreated() ? "order-created" : "order-status", order));
+        broadcast(message("counters", orderCounters.getStatistics()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrackingUpdated(TrackingUpdatedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, Object> tracking = new LinkedHashMap<>();
+        tracking.put("orderId", event.getOrderId());
+        tracking.put("orderNumber", event.getOrderNumber());
+        tracking.put("status", event.getStatus());
+        tracking.put("location", event.getLocation());
+        tracking.put("statusDate", event.getStatusDate());
+        broadcast(message("tracking", tracking));
+    }
+
+    /**
+     * Keeps idle connections open through proxies and detects closed ones
+     */
+    @Scheduled(fixedDelayString = "${dashboard.feed.heartbeat-ms:20000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        tickets.values().removeIf(expiresAt -> expiresAt < now);
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("keepalive").build());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdownNow();
+    }
+
+    private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+        }
+    }
+
+    /**
+     * Serialize once for all subscribers
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> message(String name, Object payload) {
+        try {
+            return SseEmitter.event()
+                    .id(Long.toString(sequence.incrementAndGet()))
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(payload))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize dashboard feed message", e);
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                // Too far behind for deltas to be meaningful: drop them and have the client reload
+                buffer.clear();
+                buffer.offer(message("resync", Map.of("reason", "buffer overflow")));
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this);
+                } catch (RejectedExecutionException e) {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> message;
+                while (!closed && (message = buffer.poll()) != null) {
+                    emitter.send(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                logger.debug("Dashboard feed subscriber dropped: {}", e.getMessage());
+                emitter.completeWithError(e);
+                close();
+            } finally {
+                scheduled.set(false);
+                if (!closed && !buffer.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void close() {
+            closed = true;
+            buffer.clear();
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.silea.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The whole admin dashboard in one call: each statistics section runs concurrently in its own
+ * read-only transaction, so the call takes as long as the slowest section rather than the sum.
+ * A section that fails or misses the deadline is left out and listed in failedSections instead
+ * of failing the call. Sections derived from the same data (alerts, inventory) reuse the
+ * results already fetched for this call instead of querying again.
+ */
+@Service
+public class DashboardOverviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardOverviewService.class);
+
+    private static final int DELAYED_TRACKING_HOURS = 48;
+
+    private final OrderService orderService;
+    private final CustomerService customerService;
+    private final ProductService productService;
+    private final OrderTrackingService orderTrackingService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public DashboardOverviewService(OrderService orderService, CustomerService customerService,
+                                    ProductService productService, OrderTrackingService orderTrackingService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${dashboard.overview.threads:8}") int threads,
+                                    @Value("${dashboard.overview.queue-capacity:64}") int queueCapacity,
+                                    @Value("${dashboard.overview.timeout-ms:3000}") long timeoutMs) {
+        this.orderService = orderService;
+        this.customerService = customerService;
+        this.productService = productService;
+        this.orderTrackingService = orderTrackingService;
+        this.timeoutMs = timeoutMs;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Also bounds each section's queries, so an abandoned section does not hold a connection for long
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, (timeoutMs + 999) / 1000));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "dashboard-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Every dashboard section; missing sections are named in failedSections and partial is true
+     */
+    public Map<String, Object> getOverview() {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        CompletableFuture<OrderService.OrderStatistics> orders = section(orderService::getOrderStatistics);
+        CompletableFuture<CustomerService.CustomerStatistics> customers = section(customerService::getCustomerStatistics);
+        CompletableFuture<ProductService.ProductStatistics> products = section(productService::getProductStatistics);
+        CompletableFuture<OrderTrackingService.TrackingStatistics> tracking = section(orderTrackingService::getTrackingStatistics);
+        CompletableFuture<Double> averageDeliveryTime = section(orderTrackingService::getAverageDeliveryTime);
+        CompletableFuture<Long> delayedDeliveries = section(() ->
+                orderTrackingService.countOrdersWithDelayedTracking(DELAYED_TRACKING_HOURS));
+
+        List<String> failed = new ArrayList<>();
+        OrderService.OrderStatistics orderStats = await("orders", orders, deadline, failed);
+        CustomerService.CustomerStatistics customerStats = await("customers", customers, deadline, failed);
+        ProductService.ProductStatistics productStats = await("products", products, deadline, failed);
+        OrderTrackingService.TrackingStatistics trackingStats = await("tracking", tracking, deadline, failed);
+        Double averageDelivery = await("deliveryPerformance", averageDeliveryTime, deadline, failed);
+        Long delayed = await("delayedDeliveries", delayedDeliveries, deadline, failed);
+
+        Map<String, Object> overview = new LinkedHashMap<>();
+        overview.put("orders", orderStats);
+        overview.put("customers", customerStats);
+        overview.put("products", productStats);
+        overview.put("tracking", trackingStats);
+
+        Map<String, Object> deliveryPerformance = new LinkedHashMap<>();
+        deliveryPerformance.put("averageDeliveryTime", averageDelivery);
+        deliveryPerformance.put("delayedOrdersCount", delayed);
+        overview.put("deliveryPerformance", deliveryPerformance);
+
+        Map<String, Object> inventoryAlerts = new LinkedHashMap<>();
+        inventoryAlerts.put("unavailableProducts", productStats != null ? productStats.getUnavailableProducts() : null);
+        inventoryAlerts.put("totalProducts", productStats != null ? productStats.getTotalProducts() : null);
+        overview.put("inventoryAlerts", inventoryAlerts);
+
+        Map<String, Object> alerts = new LinkedHashMap<>();
+        alerts.put("unavailableProductsCount", productStats != null ? productStats.getUnavailableProducts() : null);
+        alerts.put("pendingOrdersCount", orderStats != null ? orderStats.getPendingOrders() : null);
+        alerts.put("delayedDeliveriesCount", delayed);
+        overview.put("alerts", alerts);
+
+        overview.put("partial", !failed.isEmpty());
+        overview.put("failedSections", failed);
+        overview.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return overview;
+    }
+
+    private <T> CompletableFuture<T> section(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> T await(String name, CompletableFuture<T> future, long deadline, List<String> failed) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Dashboard section {} timed out", name);
+        } catch (ExecutionException e) {
+            logger.warn("Dashboard section {} failed: {}", name, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failed.add(name);
+        return null;
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.IdempotencyRecord;
+import com.example.silea.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays its response to retries.
+ *
+ * Duplicates arriving on the same instance wait on the in-flight result in memory. The
+ * idempotency_keys table makes the claim and the stored response visible to the other
+ * instances; a duplicate that lands elsewhere while the first request is still running
+ * polls that row. Only successful responses are kept: after an error the key is released
+ * so the client can retry for real.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private final IdempotencyRecordRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newTransaction;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long waitTimeoutMs;
+    private final long inProgressTimeoutMs;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                              @Value("${orders.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${orders.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${orders.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs,
+                              @Value("${orders.idempotency.in-progress-timeout-ms:120000}") long inProgressTimeoutMs) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        // Claims and results commit on their own, independently of the request's transactions
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxEntries = maxEntries;
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.inProgressTimeoutMs = inProgressTimeoutMs;
+    }
+
+    /**
+     * Run the action once for this key and request; repeated calls get the stored response
+     *
+     * @param request the parts of the request that identify it, compared by their JSON form;
+     *                a retry sending different ones gets a 422 instead of the stored response
+     */
+    public ResponseEntity<?> execute(String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(request);
+        long now = System.currentTimeMillis();
+
+        Entry mine = new Entry(fingerprint, now + ttlMillis);
+        Entry existing = entries.putIfAbsent(key, mine);
+        if (existing != null && existing.expiresAt <= now && existing.result.isDone()
+                && entries.replace(key, existing, mine)) {
+            existing = null;
+        }
+        if (existing != null) {
+            return await(existing, fingerprint);
+        }
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+
+        StoredResponse outcome;
+        try {
+            outcome = claim(key, fingerprint);
+        } catch (RuntimeException e) {
+            // Without the shared claim the request could run twice; fail rather than risk it
+            entries.remove(key, mine);
+            mine.result.completeExceptionally(e);
+            logger.error("Failed to claim idempotency key: {}", e.getMessage());
+            return error(HttpStatus.SERVICE_UNAVAILABLE, "Could not process the request, please retry");
+        }
+        if (outcome != null) {
+            if (!outcome.isSuccess()) {
+                entries.remove(key, mine);
+            }
+            mine.result.complete(outcome);
+            return replay(outcome);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            forget(key, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+
+        StoredResponse stored = new StoredResponse(response.getStatusCode().value(), serialize(response.getBody()));
+        if (stored.isSuccess()) {
+            try {
+                newTransaction.executeWithoutResult(status -> repository.complete(key, stored.status, stored.body));
+            } catch (RuntimeException e) {
+                // The request did run; replays still work on this instance
+                logger.error("Failed to store idempotent response: {}", e.getMessage());
+            }
+        } else {
+            forget(key, mine);
+        }
+        mine.result.complete(stored);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        evict(System.currentTimeMillis());
+        try {
+            Integer deleted = newTransaction.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+            logger.debug("Purged {} expired idempotency keys", deleted);
+        } catch (Exception e) {
+            logger.error("Failed to purge idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim the key in the shared table. Returns null when this request must run, or the
+     * response to send instead (stored result, fingerprint mismatch, still in progress elsewhere).
+     */
+    private StoredResponse claim(String key, String fingerprint) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                newTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                        "INSERT INTO idempotency_keys (idempotency_key, fingerprint, completed, created_at, expires_at) " +
+                        "VALUES (?, ?, false, ?, ?)",
+                        key, fingerprint, Timestamp.valueOf(now), Timestamp.valueOf(now.plusNanos(ttlMillis * 1_000_000))));
+                return null;
+            } catch (DuplicateKeyException e) {
+                // Claimed before, possibly by another instance
+            }
+
+            IdempotencyRecord record = newTransaction.execute(status -> repository.findById(key).orElse(null));
+            if (record == null) {
+                continue; // Released in the meantime
+            }
+            if (record.getExpiresAt().isBefore(now)) {
+                newTransaction.executeWithoutResult(status -> repository.deleteIfExpired(key, now));
+                continue;
+            }
+            if (!record.getFingerprint().equals(fingerprint)) {
+                return mismatch();
+            }
+            if (Boolean.TRUE.equals(record.getCompleted())) {
+                return new StoredResponse(record.getResponseStatus(), record.getResponseBody());
+            }
+            LocalDateTime abandonedBefore = now.minusNanos(inProgressTimeoutMs * 1_000_000);
+            if (record.getCreatedAt().isBefore(abandonedBefore)) {
+                newTransaction.executeWithoutResult(status -> repository.deleteIfAbandoned(key, abandonedBefore));
+                continue;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return stillRunning();
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return stillRunning();
+            }
+        }
+    }
+
+    private ResponseEntity<?> await(Entry entry, String fingerprint) {
+        if (!entry.fingerprint.equals(fingerprint)) {
+            return replay(mismatch());
+        }
+        try {
+            return replay(entry.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException | ExecutionException e) {
+            return replay(stillRunning());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return replay(stillRunning());
+        }
+    }
+
+    private void forget(String key, Entry entry) {
+        entries.remove(key, entry);
+        try {
+            newTransaction.executeWithoutResult(status -> repository.release(key));
+        } catch (RuntimeException e) {
+            logger.error("Failed to release idempotency key: {}", e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored) {
+        return ResponseEntity.status(stored.status)
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(stored.body);
+    }
+
+    private StoredResponse mismatch() {
+        return new StoredResponse(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                serialize(Map.of("success", false, "message", "Idempotency-Key was already used with a different request")));
+    }
+
+    private StoredResponse stillRunning() {
+        return new StoredResponse(HttpStatus.CONFLICT.value(),
+                serialize(Map.of("success", false, "message", "A request with this Idempotency-Key is still being processed")));
+    }
+
+    private ResponseEntity<?> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("success", false, "message", message));
+    }
+
+    private String serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                    objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    /**
+     * Remove expired entries, then the oldest tenth if the map is still full
+     */
+    private void evict(long now) {
+        entries.entrySet().removeIf(e -> e.getValue().expiresAt <= now && e.getValue().result.isDone());
+        int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .filter(e -> e.getValue().result.isDone())
+                    .sorted(Comparator.comparingLong(e -> e.getValue().expiresAt))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class StoredResponse {
+        private final int status;
+        private final String body;
+
+        private StoredResponse(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
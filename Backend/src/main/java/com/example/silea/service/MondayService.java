@@ -35,6 +35,13 @@ public class MondayService {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Whether the Monday.com integration is turned on
+     */
+    public boolean isEnabled() {
+        return mondayConfig.isEnabled();
+    }
+
     /**
      * Create a new item in Monday.com board for a placed order
      * @param order The order to create in Monday.com
@@ -0,0 +1,51 @@
+package com.example.silea.service;
+
+import com.example.silea.enums.ProductSize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Price arithmetic in long centimes (1/100 MAD). Amounts become BigDecimal only at the
+ * persistence and JSON boundary; rounding matches BigDecimal HALF_UP at scale 2.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * Centimes of an amount, rounded HALF_UP to 2 decimals (prices are stored with scale 2)
+     */
+    public static long toCentimes(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Amount with scale 2 for the given centimes
+     */
+    public static BigDecimal toAmount(long centimes) {
+        return BigDecimal.valueOf(centimes, 2);
+    }
+
+    /**
+     * Unit price of a size: base price times the size multiplier, the base price itself without a size
+     */
+    public static long unitPrice(long baseCentimes, ProductSize size) {
+        return size == null ? baseCentimes : percentOf(baseCentimes, size.getMultiplierPercent());
+    }
+
+    public static long lineTotal(long unitCentimes, int quantity) {
+        return Math.multiplyExact(unitCentimes, quantity);
+    }
+
+    /**
+     * centimes * percent / 100 rounded HALF_UP, the same result as
+     * {@code amount.multiply(percent / 100).setScale(2, HALF_UP)}
+     */
+    public static long percentOf(long centimes, int percent) {
+        long scaled = Math.multiplyExact(centimes, percent);
+        // HALF_UP rounds ties away from zero on both sides
+        return scaled >= 0 ? (scaled + 50) / 100 : -((-scaled + 50) / 100);
+    }
+}
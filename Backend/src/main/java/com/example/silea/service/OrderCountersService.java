@@ -0,0 +1,231 @@
+package com.example.silea.service;
+
+import com.example.silea.enums.OrderStatus;
+import com.example.silea.event.OrderChangedEvent;
+import com.example.silea.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Order counts per status, today's order count and the last 30 days' delivered revenue, kept
+ * in memory so the dashboard reads them without a query. Seeded by one GROUP BY status query,
+ * then moved by order change events; a periodic reconcile re-reads the query to correct drift
+ * and to drop revenue of orders that aged out of the 30 day window.
+ *
+ * Events only reach the instance that committed the change, so the in-memory counters assume
+ * a single instance: behind a load balancer each one would miss the others' orders until its
+ * next reconcile. With orders.counters.in-memory set to false every read runs the query instead.
+ */
+@Service
+public class OrderCountersService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderCountersService.class);
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final int REVENUE_DAYS = 30;
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean inMemory;
+    private final Object reconcileLock = new Object();
+
+    // Guarded by this
+    private Counters counters;
+    // Events applied while a reconcile query runs, replayed on top of its result; guarded by this
+    private List<OrderChangedEvent> journal;
+
+    public OrderCountersService(OrderRepository orderRepository, PlatformTransactionManager transactionManager,
+                                @Value("${orders.counters.in-memory:true}") boolean inMemory) {
+        this.orderRepository = orderRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.inMemory = inMemory;
+        if (!inMemory) {
+            logger.info("Order counters are read from the orders table on every request");
+        }
+    }
+
+    /**
+     * Current statistics, seeding the counters first if they were never loaded
+     */
+    public OrderService.OrderStatistics getStatistics() {
+        if (!inMemory) {
+            return toStatistics(load());
+        }
+        ensureSeeded();
+        synchronized (this) {
+            return toStatistics(counters);
+        }
+    }
+
+    /**
+     * Number of orders currently in a status
+     */
+    public long count(OrderStatus status) {
+        if (!inMemory) {
+            return load().counts[status.ordinal()];
+        }
+        ensureSeeded();
+        synchronized (this) {
+            return counters.counts[status.ordinal()];
+        }
+    }
+
+    // Ahead of listeners that read the counters, such as the dashboard feed
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!inMemory) {
+            return;
+        }
+        synchronized (this) {
+            if (counters == null) {
+                // Not seeded yet: the seed query will include this order
+                return;
+            }
+            counters.apply(event);
+            if (journal != null) {
+                journal.add(event);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!inMemory) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.error("Failed to seed order counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the counters with a fresh read of the orders table
+     */
+    @Scheduled(initialDelayString = "${orders.counters.reconcile-interval-ms:300000}",
+            fixedDelayString = "${orders.counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!inMemory) {
+            return;
+        }
+        synchronized (reconcileLock) {
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+            Counters fresh;
+            try {
+                fresh = load();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    journal = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                // Changes committed after the query read its snapshot
+                journal.forEach(fresh::apply);
+                journal = null;
+                if (counters != null && !Arrays.equals(counters.counts, fresh.counts)) {
+                    logger.info("Order counters drifted, corrected from {} to {}",
+                            Arrays.toString(counters.counts), Arrays.toString(fresh.counts));
+                }
+                counters = fresh;
+            }
+        }
+    }
+
+    private void ensureSeeded() {
+        synchronized (this) {
+            if (counters != null) {
+                return;
+            }
+        }
+        reconcile();
+    }
+
+    private static OrderService.OrderStatistics toStatistics(Counters c) {
+        long[] n = c.counts;
+        long total = Arrays.stream(n).sum();
+        long todays = c.day.equals(LocalDate.now()) ? c.todays : 0;
+        return new OrderService.OrderStatistics(total,
+                n[OrderStatus.PENDING.ordinal()], n[OrderStatus.CONFIRMED.ordinal()],
+                n[OrderStatus.PROCESSING.ordinal()], n[OrderStatus.SHIPPED.ordinal()],
+                n[OrderStatus.OUT_FOR_DELIVERY.ordinal()], n[OrderStatus.DELIVERED.ordinal()],
+                n[OrderStatus.CANCELLED.ordinal()], n[OrderStatus.REFUNDED.ordinal()],
+                Money.toAmount(c.revenueCentimes), todays);
+    }
+
+    private Counters load() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime revenueSince = LocalDateTime.now().minusDays(REVENUE_DAYS);
+        List<Object[]> rows = readOnlyTransaction.execute(status ->
+                orderRepository.countByStatusWithTodayAndRevenue(today.atStartOfDay(), revenueSince));
+        Counters loaded = new Counters(today);
+        for (Object[] row : rows) {
+            OrderStatus status = (OrderStatus) row[0];
+            loaded.counts[status.ordinal()] = ((Number) row[1]).longValue();
+            loaded.todays += row[2] != null ? ((Number) row[2]).longValue() : 0;
+            if (status == OrderStatus.DELIVERED && row[3] != null) {
+                loaded.revenueCentimes = Money.toCentimes(new BigDecimal(row[3].toString()));
+            }
+        }
+        return loaded;
+    }
+
+    private static final class Counters {
+        private final long[] counts = new long[STATUSES.length];
+        private LocalDate day;
+        private long todays;
+        private long revenueCentimes;
+
+        private Counters(LocalDate day) {
+            this.day = day;
+        }
+
+        private void apply(OrderChangedEvent event) {
+            if (event.getPreviousStatus() != null) {
+                counts[event.getPreviousStatus().ordinal()]--;
+            }
+            counts[event.getStatus().ordinal()]++;
+
+            if (event.isCreated() && event.getOrderDate() != null) {
+                LocalDate orderDay = event.getOrderDate().toLocalDate();
+                if (orderDay.isAfter(day)) {
+                    day = orderDay;
+                    todays = 0;
+                }
+                if (orderDay.equals(day)) {
+                    todays++;
+                }
+            }
+
+            boolean wasDelivered = event.getPreviousStatus() == OrderStatus.DELIVERED;
+            boolean isDelivered = event.getStatus() == OrderStatus.DELIVERED;
+            if (wasDelivered != isDelivered && event.getTotal() != null && event.getOrderDate() != null
+                    && event.getOrderDate().isAfter(LocalDateTime.now().minusDays(REVENUE_DAYS))) {
+                long total = Money.toCentimes(event.getTotal());
+                revenueCentimes += isDelivered ? total : -total;
+            }
+        }
+    }
+}
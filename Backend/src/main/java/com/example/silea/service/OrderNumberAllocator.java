@@ -0,0 +1,285 @@
+package com.example.silea.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Order numbers and tracking codes without counting orders or retrying on collisions.
+ *
+ * Each instance reserves a block of sequence values from the id_sequences table in a short
+ * transaction of its own (SELECT ... FOR UPDATE), then hands them out from memory with a
+ * single atomic increment. Instances never share a block, so numbers are unique across
+ * instances; values left in a block at shutdown are simply skipped. The next block is reserved
+ * on a background thread once half of the current one is used: checkouts call this from inside
+ * their own transaction, so reserving there would need a second pooled connection per waiter.
+ *
+ * The tracking code is SL-yyMMdd-XXXX where XXXX encodes the low 20 bits of the order's
+ * sequence value, scrambled by a keyed Feistel permutation: distinct values give distinct
+ * codes (up to 2^20 orders per day) and, as long as orders.tracking-code-key stays private,
+ * consecutive orders do not get guessable codes.
+ */
+@Service
+public class OrderNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNumberAllocator.class);
+
+    private static final String ORDER_SEQUENCE = "order_number";
+    private static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789"; // No 0/O, 1/I
+    private static final int CODE_BITS = 20; // 4 characters of 5 bits
+    private static final int HALF_BITS = CODE_BITS / 2;
+    private static final int HALF_MASK = (1 << HALF_BITS) - 1;
+    private static final int FEISTEL_ROUNDS = 4;
+    private static final DateTimeFormatter CODE_DATE = DateTimeFormatter.ofPattern("yyMMdd");
+    // Public fallback key, only acceptable for local development
+    private static final String DEFAULT_TRACKING_KEY = "silea-tracking";
+    private static final List<String> DEV_PROFILES = List.of("dev", "local", "test");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    private final long blockWaitMs;
+    private final long[] roundKeys;
+
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "order-number-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderNumberAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                Environment environment,
+                                @Value("${orders.number-block-size:20}") int blockSize,
+                                @Value("${orders.number-block-wait-ms:2000}") long blockWaitMs,
+                                @Value("${orders.tracking-code-key:}") String trackingCodeKey) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        // Reserve outside the caller's transaction so the row lock is held for milliseconds only
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, blockSize);
+        this.blockWaitMs = blockWaitMs;
+        this.roundKeys = deriveRoundKeys(resolveTrackingKey(trackingCodeKey, environment));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // The first checkout finds its block already reserved
+        prefetch(block.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    /**
+     * Next order sequence value, unique across all instances
+     *
+     * @throws IllegalStateException when no block could be reserved in time
+     */
+    public long nextOrderSequence() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockWaitMs);
+        while (true) {
+            Block current = block.get();
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                if (value == current.prefetchAt) {
+                    prefetch(current);
+                }
+                return value;
+            }
+            advance(current, deadline);
+        }
+    }
+
+    /**
+     * Order number for a sequence value (CMD001, CMD002, ...)
+     */
+    public String formatOrderNumber(long sequence) {
+        return String.format("CMD%03d", sequence);
+    }
+
+    /**
+     * Tracking code for a sequence value: SL-yyMMdd-XXXX
+     */
+    public String formatTrackingCode(long sequence, LocalDate date) {
+        int code = permute((int) (sequence & ((1 << CODE_BITS) - 1)));
+        char[] chars = new char[CODE_BITS / 5];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt(code & 31);
+            code >>>= 5;
+        }
+        return "SL-" + date.format(CODE_DATE) + "-" + new String(chars);
+    }
+
+    /**
+     * Reserve the block following this one on the prefetch thread, once per block
+     */
+    private CompletableFuture<Block> prefetch(Block current) {
+        CompletableFuture<Block> created = new CompletableFuture<>();
+        CompletableFuture<Block> existing = current.successor.compareAndExchange(null, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            prefetcher.execute(() -> {
+                try {
+                    long start = reserve(blockSize);
+                    logger.debug("Reserved order numbers {} to {}", start, start + blockSize - 1);
+                    created.complete(new Block(start, start + blockSize));
+                } catch (Exception e) {
+                    logger.warn("Failed to reserve order numbers: {}", e.getMessage());
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    /**
+     * Switch from an exhausted block to its successor, waiting for it without holding a lock
+     */
+    private void advance(Block exhausted, long deadline) {
+        CompletableFuture<Block> successor = prefetch(exhausted);
+        try {
+            Block next = successor.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            block.compareAndSet(exhausted, next);
+        } catch (ExecutionException e) {
+            // Forget the failed attempt so the next try reserves again
+            exhausted.successor.compareAndSet(successor, null);
+            if (System.nanoTime() - deadline >= 0) {
+                throw new IllegalStateException("Could not reserve order numbers", e.getCause());
+            }
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out reserving order numbers");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reserving order numbers");
+        }
+    }
+
+    private long reserve(int size) {
+        Long start = newTransaction.execute(status -> {
+            Long next = currentValue();
+            if (next == null) {
+                // First use: continue after the highest order number already issued
+                Long seed = jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(MAX(CAST(SUBSTRING(order_number, 4) AS UNSIGNED)), 0) + 1 " +
+                        "FROM orders WHERE order_number LIKE 'CMD%'", Long.class);
+                jdbcTemplate.update("INSERT IGNORE INTO id_sequences (name, next_value) VALUES (?, ?)", ORDER_SEQUENCE, seed);
+                next = currentValue();
+            }
+            jdbcTemplate.update("UPDATE id_sequences SET next_value = ? WHERE name = ?", next + size, ORDER_SEQUENCE);
+            return next;
+        });
+        if (start == null) {
+            throw new IllegalStateException("Could not reserve order numbers");
+        }
+        return start;
+    }
+
+    private Long currentValue() {
+        return jdbcTemplate.query("SELECT next_value FROM id_sequences WHERE name = ? FOR UPDATE",
+                rs -> rs.next() ? rs.getLong(1) : null, ORDER_SEQUENCE);
+    }
+
+    /**
+     * Balanced Feistel network over 20 bits: a bijection whatever the round function
+     */
+    int permute(int value) {
+        int left = (value >>> HALF_BITS) & HALF_MASK;
+        int right = value & HALF_MASK;
+        for (long roundKey : roundKeys) {
+            int mixed = (int) (mix(right ^ roundKey) & HALF_MASK);
+            int nextRight = left ^ mixed;
+            left = right;
+            right = nextRight;
+        }
+        return (left << HALF_BITS) | right;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * The configured key. A missing key fails startup unless only development profiles are
+     * explicitly active: anyone could derive tracking codes from order numbers with the public
+     * default, and production runs with no profile at all.
+     */
+    private static String resolveTrackingKey(String key, Environment environment) {
+        if (key != null && !key.isBlank()) {
+            return key;
+        }
+        String[] profiles = environment.getActiveProfiles();
+        if (profiles.length == 0 || !DEV_PROFILES.containsAll(Arrays.asList(profiles))) {
+            throw new IllegalStateException("orders.tracking-code-key (TRACKING_CODE_KEY) must be set unless a "
+                    + DEV_PROFILES + " profile is active (active profiles: " + Arrays.toString(profiles) + ")");
+        }
+        logger.warn("orders.tracking-code-key is not set: tracking codes use a public default key and can be "
+                + "derived from order numbers. Set TRACKING_CODE_KEY in production.");
+        return DEFAULT_TRACKING_KEY;
+    }
+
+    private static long[] deriveRoundKeys(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            long[] keys = new long[FEISTEL_ROUNDS];
+            for (int round = 0; round < FEISTEL_ROUNDS; round++) {
+                long k = 0;
+                for (int i = 0; i < 8; i++) {
+                    k = (k << 8) | (digest[round * 8 + i] & 0xff);
+                }
+                keys[round] = k;
+            }
+            return keys;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+        // Handing out this value starts reserving the next block
+        final long prefetchAt;
+        final AtomicReference<CompletableFuture<Block>> successor = new AtomicReference<>();
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+            this.prefetchAt = start + (end - start) / 2;
+        }
+    }
+}
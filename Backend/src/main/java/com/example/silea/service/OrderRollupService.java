@@ -0,0 +1,579 @@
+package com.example.silea.service;
+
+import com.example.silea.enums.OrderStatus;
+import com.example.silea.enums.ProductSize;
+import com.example.silea.event.OrderChangedEvent;
+import com.example.silea.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Per-day order aggregates (daily_order_rollups by status and city, daily_item_rollups by
+ * status, product and size) so revenue and trend queries sum a few rows per day instead of
+ * scanning orders and order lines. Rows are keyed by the day the order was placed and its
+ * current status: order events are queued after commit and applied as batched upserts, a
+ * status change moving the order from its old status rows to the new ones.
+ *
+ * order_rollup_members records the status each order is counted under. A flush re-reads the
+ * changed orders and moves only those whose status differs from their member row, and a
+ * rebuild rewrites the member rows of its days along with the rollups, in one transaction.
+ * Both lock the member rows they touch, so applying a change the rebuild already counted (or
+ * applying it twice, or out of order) is a no-op instead of a double count.
+ *
+ * Queued changes are lost if the instance dies before a flush, so the last few days are
+ * rebuilt from the orders table nightly; older history is backfilled once, or on demand.
+ * A completed backfill is recorded as a marker row in id_sequences: rows written by deltas
+ * alone, or by a backfill that did not finish, never count as complete history.
+ */
+@Service
+public class OrderRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollupService.class);
+
+    private static final int ITEM_QUERY_CHUNK = 500;
+    private static final int BACKFILL_CHUNK_DAYS = 31;
+    // id_sequences row whose value is the last day (epoch day) covered by a completed backfill
+    private static final String BACKFILL_MARKER = "order_rollups_backfilled";
+
+    private static final String UPSERT_ORDERS_SQL =
+            "INSERT INTO daily_order_rollups (rollup_date, status, city, order_count, total_centimes) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "order_count = order_count + VALUES(order_count), total_centimes = total_centimes + VALUES(total_centimes)";
+
+    private static final String UPSERT_ITEMS_SQL =
+            "INSERT INTO daily_item_rollups (rollup_date, status, product_id, size, category_id, units, revenue_centimes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE units = units + VALUES(units), " +
+            "revenue_centimes = revenue_centimes + VALUES(revenue_centimes), category_id = VALUES(category_id)";
+
+    // The rollup rows of orders placed in [?, ?), computed from the orders themselves
+    private static final String AGGREGATE_ORDERS_SQL =
+            "SELECT DATE(o.order_date) AS rollup_date, o.status, o.shipping_city AS city, COUNT(*) AS order_count, " +
+            "SUM(ROUND(o.total * 100)) AS total_centimes " +
+            "FROM orders o WHERE o.order_date >= ? AND o.order_date < ? " +
+            "GROUP BY DATE(o.order_date), o.status, o.shipping_city";
+
+    private static final String AGGREGATE_ITEMS_SQL =
+            "SELECT DATE(o.order_date) AS rollup_date, o.status, oi.product_id, oi.size, MAX(p.category_id) AS category_id, " +
+            "SUM(oi.quantity) AS units, SUM(ROUND(oi.total_price * 100)) AS revenue_centimes " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.order_date >= ? AND o.order_date < ? " +
+            "GROUP BY DATE(o.order_date), o.status, oi.product_id, oi.size";
+
+    private static final String UPSERT_MEMBER_SQL =
+            "INSERT INTO order_rollup_members (order_id, status) VALUES (?, ?) ON DUPLICATE KEY UPDATE status = VALUES(status)";
+
+    private static final String DELETE_MEMBERS_SQL =
+            "DELETE m FROM order_rollup_members m JOIN orders o ON o.id = m.order_id " +
+            "WHERE o.order_date >= ? AND o.order_date < ?";
+
+    private static final String REBUILD_MEMBERS_SQL =
+            "INSERT INTO order_rollup_members (order_id, status) " +
+            "SELECT o.id, o.status FROM orders o WHERE o.order_date >= ? AND o.order_date < ?";
+
+    // Rollups of a rebuild are summed from the member rows it just wrote, so both always agree
+    private static final String REBUILD_ORDERS_SQL =
+            "INSERT INTO daily_order_rollups (rollup_date, status, city, order_count, total_centimes) " +
+            "SELECT DATE(o.order_date), m.status, o.shipping_city, COUNT(*), SUM(ROUND(o.total * 100)) " +
+            "FROM order_rollup_members m JOIN orders o ON o.id = m.order_id " +
+            "WHERE o.order_date >= ? AND o.order_date < ? " +
+            "GROUP BY DATE(o.order_date), m.status, o.shipping_city";
+
+    private static final String REBUILD_ITEMS_SQL =
+            "INSERT INTO daily_item_rollups (rollup_date, status, product_id, size, category_id, units, revenue_centimes) " +
+            "SELECT DATE(o.order_date), m.status, oi.product_id, oi.size, MAX(p.category_id), " +
+            "SUM(oi.quantity), SUM(ROUND(oi.total_price * 100)) " +
+            "FROM order_rollup_members m JOIN orders o ON o.id = m.order_id " +
+            "JOIN order_items oi ON oi.order_id = o.id JOIN products p ON p.id = oi.product_id " +
+            "WHERE o.order_date >= ? AND o.order_date < ? " +
+            "GROUP BY DATE(o.order_date), m.status, oi.product_id, oi.size";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transaction;
+    private final int repairDays;
+    private final boolean backfillOnStartup;
+
+    private final Queue<OrderChangedEvent> pending = new ConcurrentLinkedQueue<>();
+    // Serializes flushes and rebuilds of this instance; across instances the member row locks order them
+    private final Object writeLock = new Object();
+    private final ExecutorService backfillExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "order-rollups-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // False until the history is backfilled; reads then fall back to scanning orders
+    private volatile boolean ready = false;
+
+    public OrderRollupService(JdbcTemplate jdbcTemplate, OrderRepository orderRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${rollups.repair-days:7}") int repairDays,
+                              @Value("${rollups.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderRepository = orderRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        // Independent of the caller's transaction: a failed flush must not roll back an order
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.repairDays = Math.max(1, repairDays);
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getOrderDate() != null) {
+            pending.add(event);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            ready = isBackfilled();
+            if (ready || !backfillOnStartup) {
+                return;
+            }
+            backfillExecutor.submit(() -> {
+                try {
+                    backfill();
+                } catch (Exception e) {
+                    logger.error("Order rollup backfill failed: {}", e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Failed to check order rollups: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("Could not flush {} pending order rollup changes: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild every day from the first order to today, then mark the history complete
+     */
+    public void backfill() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime first = orderRepository.findFirstOrderDate();
+        if (first != null) {
+            rebuild(first.toLocalDate(), today);
+        }
+        jdbcTemplate.update("INSERT INTO id_sequences (name, next_value) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE next_value = VALUES(next_value)", BACKFILL_MARKER, today.toEpochDay());
+        ready = true;
+        logger.info("Order rollups backfilled from {}", first != null ? first.toLocalDate() : "(no orders)");
+    }
+
+    /**
+     * Recompute the rollup rows of the given days (inclusive) from the orders table,
+     * one short transaction per month of orders
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Rebuild range ends before it starts");
+        }
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(BACKFILL_CHUNK_DAYS)) {
+            LocalDate chunkEnd = chunkStart.plusDays(BACKFILL_CHUNK_DAYS - 1);
+            rebuildChunk(chunkStart, chunkEnd.isAfter(to) ? to : chunkEnd);
+        }
+    }
+
+    private void rebuildChunk(LocalDate from, LocalDate to) {
+        synchronized (writeLock) {
+            Date fromDay = Date.valueOf(from);
+            Date toDay = Date.valueOf(to);
+            LocalDateTime start = from.atStartOfDay();
+            LocalDateTime until = to.plusDays(1).atStartOfDay();
+            transaction.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM daily_order_rollups WHERE rollup_date >= ? AND rollup_date <= ?", fromDay, toDay);
+                jdbcTemplate.update("DELETE FROM daily_item_rollups WHERE rollup_date >= ? AND rollup_date <= ?", fromDay, toDay);
+                jdbcTemplate.update(DELETE_MEMBERS_SQL, start, until);
+                jdbcTemplate.update(REBUILD_MEMBERS_SQL, start, until);
+                jdbcTemplate.update(REBUILD_ORDERS_SQL, start, until);
+                jdbcTemplate.update(REBUILD_ITEMS_SQL, start, until);
+            });
+        }
+        logger.debug("Order rollups rebuilt for {} to {}", from, to);
+    }
+
+    /**
+     * Rebuild the most recent days, repairing changes lost before they were flushed
+     */
+    @Scheduled(cron = "${rollups.repair-cron:0 30 3 * * *}")
+    public void repairRecentDays() {
+        if (!ready) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(repairDays - 1L), today);
+    }
+
+    /**
+     * Apply queued order changes to the rollup tables in one transaction
+     */
+    @Scheduled(fixedDelayString = "${rollups.flush-interval-ms:5000}")
+    public void flush() {
+        if (!ready) {
+            // Another instance may have completed the backfill since
+            ready = isBackfilled();
+        }
+        synchronized (writeLock) {
+            List<OrderChangedEvent> events = new ArrayList<>();
+            for (OrderChangedEvent event; (event = pending.poll()) != null; ) {
+                events.add(event);
+            }
+            if (events.isEmpty()) {
+                return;
+            }
+            Set<Long> orderIds = events.stream().map(OrderChangedEvent::getOrderId).collect(Collectors.toSet());
+            try {
+                transaction.executeWithoutResult(status -> apply(orderIds));
+            } catch (RuntimeException e) {
+                // Applying is idempotent, so they simply go back in the queue
+                pending.addAll(events);
+                logger.error("Failed to flush {} order rollup changes, will retry: {}", events.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delivered revenue in a date-time range, both ends inclusive. Whole days come from the
+     * rollups; the partial days at either end are summed from the orders themselves.
+     */
+    public BigDecimal getDeliveredRevenue(LocalDateTime start, LocalDateTime end) {
+        if (!ready) {
+            return orZero(orderRepository.getTotalRevenueBetween(start, end));
+        }
+        flush();
+        LocalDate firstFullDay = start.toLocalTime().equals(LocalTime.MIDNIGHT) ? start.toLocalDate() : start.toLocalDate().plusDays(1);
+        LocalDate lastFullDay = end.toLocalTime().equals(LocalTime.MAX) ? end.toLocalDate() : end.toLocalDate().minusDays(1);
+        if (firstFullDay.isAfter(lastFullDay)) {
+            return orZero(orderRepository.getTotalRevenueBetween(start, end));
+        }
+
+        Long centimes = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(total_centimes), 0) FROM daily_order_rollups " +
+                "WHERE rollup_date >= ? AND rollup_date <= ? AND status = ?",
+                Long.class, Date.valueOf(firstFullDay), Date.valueOf(lastFullDay), OrderStatus.DELIVERED.name());
+        BigDecimal revenue = Money.toAmount(centimes != null ? centimes : 0);
+        if (start.isBefore(firstFullDay.atStartOfDay())) {
+            revenue = revenue.add(orZero(orderRepository.getDeliveredRevenueFrom(start, firstFullDay.atStartOfDay())));
+        }
+        if (!end.toLocalTime().equals(LocalTime.MAX)) {
+            revenue = revenue.add(orZero(orderRepository.getTotalRevenueBetween(lastFullDay.plusDays(1).atStartOfDay(), end)));
+        }
+        return revenue;
+    }
+
+    /**
+     * Dashboard trends for the given days (inclusive): daily orders and delivered revenue,
+     * totals per status, top cities, top products and sales per category. Until the history
+     * is backfilled the same figures are aggregated from the orders of the range instead.
+     */
+    public Map<String, Object> getTrends(LocalDate from, LocalDate to) {
+        boolean fromRollups = ready;
+        String orderRows;
+        String itemRows;
+        Object[] source;
+        if (fromRollups) {
+            flush();
+            orderRows = "daily_order_rollups";
+            itemRows = "daily_item_rollups";
+            source = new Object[0];
+        } else {
+            orderRows = "(" + AGGREGATE_ORDERS_SQL + ") r";
+            itemRows = "(" + AGGREGATE_ITEMS_SQL + ") r";
+            source = new Object[]{from.atStartOfDay(), to.plusDays(1).atStartOfDay()};
+        }
+        Object[] range = {Date.valueOf(from), Date.valueOf(to)};
+        Map<String, Object> trends = new LinkedHashMap<>();
+        trends.put("from", from);
+        trends.put("to", to);
+        trends.put("source", fromRollups ? "rollups" : "orders");
+
+        trends.put("daily", jdbcTemplate.query(
+                "SELECT rollup_date, SUM(order_count), SUM(CASE WHEN status = ? THEN total_centimes ELSE 0 END) " +
+                "FROM " + orderRows + " WHERE rollup_date >= ? AND rollup_date <= ? " +
+                "GROUP BY rollup_date ORDER BY rollup_date",
+                (rs, i) -> row("date", rs.getDate(1).toLocalDate(), "orders", rs.getLong(2),
+                        "deliveredRevenue", Money.toAmount(rs.getLong(3))),
+                params(new Object[]{OrderStatus.DELIVERED.name()}, source, range)));
+
+        trends.put("byStatus", jdbcTemplate.query(
+                "SELECT status, SUM(order_count), SUM(total_centimes) FROM " + orderRows + " " +
+                "WHERE rollup_date >= ? AND rollup_date <= ? GROUP BY status",
+                (rs, i) -> row("status", rs.getString(1), "orders", rs.getLong(2), "total", Money.toAmount(rs.getLong(3))),
+                params(source, range)));
+
+        trends.put("topCities", jdbcTemplate.query(
+                "SELECT city, SUM(order_count) AS orders, SUM(total_centimes) FROM " + orderRows + " " +
+                "WHERE rollup_date >= ? AND rollup_date <= ? GROUP BY city ORDER BY orders DESC LIMIT 20",
+                (rs, i) -> row("city", rs.getString(1), "orders", rs.getLong(2), "total", Money.toAmount(rs.getLong(3))),
+                params(source, range)));
+
+        trends.put("topProducts", jdbcTemplate.query(
+                "SELECT product_id, SUM(units) AS sold, SUM(revenue_centimes) FROM " + itemRows + " " +
+                "WHERE rollup_date >= ? AND rollup_date <= ? GROUP BY product_id ORDER BY sold DESC LIMIT 10",
+                (rs, i) -> row("productId", rs.getLong(1), "units", rs.getLong(2), "revenue", Money.toAmount(rs.getLong(3))),
+                params(source, range)));
+
+        trends.put("byCategory", jdbcTemplate.query(
+                "SELECT category_id, SUM(units), SUM(revenue_centimes) FROM " + itemRows + " " +
+                "WHERE rollup_date >= ? AND rollup_date <= ? GROUP BY category_id",
+                (rs, i) -> row("categoryId", rs.getObject(1), "units", rs.getLong(2), "revenue", Money.toAmount(rs.getLong(3))),
+                params(source, range)));
+        return trends;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private boolean isBackfilled() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM id_sequences WHERE name = ?)", Boolean.class, BACKFILL_MARKER));
+    }
+
+    /**
+     * Move the given orders to the rows of their current status, from the status their member
+     * row says they are counted under
+     */
+    private void apply(Set<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(orderIds);
+        Map<Long, OrderStatus> counted = new HashMap<>();
+        // Member rows first, locked: the orders read below then see any rebuild that held them
+        forEachChunk(ids, chunk -> jdbcTemplate.query(
+                "SELECT order_id, status FROM order_rollup_members WHERE order_id IN (" + placeholders(chunk) + ") FOR UPDATE",
+                rs -> {
+                    counted.put(rs.getLong(1), OrderStatus.valueOf(rs.getString(2)));
+                },
+                chunk.toArray()));
+        List<OrderRow> changed = new ArrayList<>();
+        forEachChunk(ids, chunk -> jdbcTemplate.query(
+                "SELECT id, order_date, status, shipping_city, total FROM orders WHERE id IN (" + placeholders(chunk) + ")",
+                rs -> {
+                    OrderRow order = new OrderRow(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime().toLocalDate(),
+                            OrderStatus.valueOf(rs.getString(3)), rs.getString(4),
+                            rs.getBigDecimal(5) != null ? Money.toCentimes(rs.getBigDecimal(5)) : 0);
+                    if (counted.get(order.id) != order.status) {
+                        changed.add(order);
+                    }
+                },
+                chunk.toArray()));
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        Map<OrderKey, long[]> orderDeltas = new HashMap<>();
+        Map<ItemKey, long[]> itemDeltas = new HashMap<>();
+        Map<Long, List<ItemLine>> itemsByOrder = loadItems(changed.stream().map(order -> order.id).collect(Collectors.toSet()));
+        List<Object[]> memberRows = new ArrayList<>(changed.size());
+        for (OrderRow order : changed) {
+            String city = order.city != null ? order.city : "";
+            List<ItemLine> items = itemsByOrder.getOrDefault(order.id, Collections.emptyList());
+            OrderStatus previous = counted.get(order.id);
+            if (previous != null) {
+                addDeltas(orderDeltas, itemDeltas, order.day, previous, city, order.totalCentimes, items, -1);
+            }
+            addDeltas(orderDeltas, itemDeltas, order.day, order.status, city, order.totalCentimes, items, 1);
+            memberRows.add(new Object[]{order.id, order.status.name()});
+        }
+
+        List<Object[]> orderRows = new ArrayList<>(orderDeltas.size());
+        orderDeltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                orderRows.add(new Object[]{Date.valueOf(key.day), key.status.name(), key.city, delta[0], delta[1]});
+            }
+        });
+        List<Object[]> itemRows = new ArrayList<>(itemDeltas.size());
+        itemDeltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                itemRows.add(new Object[]{Date.valueOf(key.day), key.status.name(), key.productId, key.size.name(),
+                        key.categoryId, delta[0], delta[1]});
+            }
+        });
+        jdbcTemplate.batchUpdate(UPSERT_ORDERS_SQL, orderRows);
+        jdbcTemplate.batchUpdate(UPSERT_ITEMS_SQL, itemRows);
+        jdbcTemplate.batchUpdate(UPSERT_MEMBER_SQL, memberRows);
+    }
+
+    private static void addDeltas(Map<OrderKey, long[]> orderDeltas, Map<ItemKey, long[]> itemDeltas, LocalDate day,
+                                  OrderStatus status, String city, long total, List<ItemLine> items, int sign) {
+        long[] orderDelta = orderDeltas.computeIfAbsent(new OrderKey(day, status, city), k -> new long[2]);
+        orderDelta[0] += sign;
+        orderDelta[1] += sign * total;
+        for (ItemLine item : items) {
+            long[] itemDelta = itemDeltas.computeIfAbsent(
+                    new ItemKey(day, status, item.productId, item.size, item.categoryId), k -> new long[2]);
+            itemDelta[0] += sign * (long) item.quantity;
+            itemDelta[1] += sign * item.totalCentimes;
+        }
+    }
+
+    private Map<Long, List<ItemLine>> loadItems(Set<Long> orderIds) {
+        Map<Long, List<ItemLine>> items = new HashMap<>();
+        forEachChunk(new ArrayList<>(orderIds), chunk -> jdbcTemplate.query(
+                "SELECT oi.order_id, oi.product_id, oi.size, p.category_id, oi.quantity, oi.total_price " +
+                "FROM order_items oi JOIN products p ON p.id = oi.product_id WHERE oi.order_id IN (" + placeholders(chunk) + ")",
+                rs -> {
+                    items.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(new ItemLine(
+                            rs.getLong(2), ProductSize.valueOf(rs.getString(3)), rs.getObject(4, Long.class),
+                            rs.getInt(5), Money.toCentimes(rs.getBigDecimal(6))));
+                },
+                chunk.toArray()));
+        return items;
+    }
+
+    private static void forEachChunk(List<Long> ids, Consumer<List<Long>> action) {
+        for (int i = 0; i < ids.size(); i += ITEM_QUERY_CHUNK) {
+            action.accept(ids.subList(i, Math.min(ids.size(), i + ITEM_QUERY_CHUNK)));
+        }
+    }
+
+    private static String placeholders(List<Long> ids) {
+        return String.join(",", Collections.nCopies(ids.size(), "?"));
+    }
+
+    private static Map<String, Object> row(Object... keysAndValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            row.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    private static Object[] params(Object[]... parts) {
+        List<Object> params = new ArrayList<>();
+        for (Object[] part : parts) {
+            Collections.addAll(params, part);
+        }
+        return params.toArray();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static final class OrderRow {
+        private final long id;
+        private final LocalDate day;
+        private final OrderStatus status;
+        private final String city;
+        private final long totalCentimes;
+
+        private OrderRow(long id, LocalDate day, OrderStatus status, String city, long totalCentimes) {
+            this.id = id;
+            this.day = day;
+            this.status = status;
+            this.city = city;
+            this.totalCentimes = totalCentimes;
+        }
+    }
+
+    private static final class ItemLine {
+        private final long productId;
+        private final ProductSize size;
+        private final Long categoryId;
+        private final int quantity;
+        private final long totalCentimes;
+
+        private ItemLine(long productId, ProductSize size, Long categoryId, int quantity, long totalCentimes) {
+            this.productId = productId;
+            this.size = size;
+            this.categoryId = categoryId;
+            this.quantity = quantity;
+            this.totalCentimes = totalCentimes;
+        }
+    }
+
+    private static final class OrderKey {
+        private final LocalDate day;
+        private final OrderStatus status;
+        private final String city;
+
+        private OrderKey(LocalDate day, OrderStatus status, String city) {
+            this.day = day;
+            this.status = status;
+            this.city = city;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof OrderKey)) return false;
+            OrderKey other = (OrderKey) o;
+            return day.equals(other.day) && status == other.status && city.equals(other.city);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, status, city);
+        }
+    }
+
+    private static final class ItemKey {
+        private final LocalDate day;
+        private final OrderStatus status;
+        private final long productId;
+        private final ProductSize size;
+        // Not part of identity: the product's current category
+        private final Long categoryId;
+
+        private ItemKey(LocalDate day, OrderStatus status, long productId, ProductSize size, Long categoryId) {
+            this.day = day;
+            this.status = status;
+            this.productId = productId;
+            this.size = size;
+            this.categoryId = categoryId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ItemKey)) return false;
+            ItemKey other = (ItemKey) o;
+            return day.equals(other.day) && status == other.status && productId == other.productId && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, status, productId, size);
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.example.silea.service;
 
+import com.example.silea.dto.CursorPage;
+import com.example.silea.dto.KeysetCursor;
 import com.example.silea.entity.*;
 import com.example.silea.enums.OrderStatus;
+import com.example.silea.enums.OutboxEventType;
+import com.example.silea.event.OrderChangedEvent;
 import com.example.silea.repository.CustomerRepository;
 import com.example.silea.repository.OrderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.security.SecureRandom;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -27,18 +34,28 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
-    private final MondayService mondayService;
-    private final WhatsAppService whatsAppService;
-    
-    // For generating unique tracking codes
-    private static final SecureRandom secureRandom = new SecureRandom();
+    private final OutboxService outboxService;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final StockService stockService;
+    private final OrderCountersService orderCounters;
+    private final OrderRollupService orderRollups;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long changesSafetyLagMs;
 
     public OrderService(OrderRepository orderRepository, CustomerRepository customerRepository,
-                       MondayService mondayService, WhatsAppService whatsAppService) {
+                       OutboxService outboxService, OrderNumberAllocator orderNumberAllocator,
+                       StockService stockService, OrderCountersService orderCounters,
+                       OrderRollupService orderRollups, ApplicationEventPublisher eventPublisher,
+                       @Value("${orders.changes.safety-lag-ms:5000}") long changesSafetyLagMs) {
         this.orderRepository = orderRepository;
         this.customerRepository = customerRepository;
-        this.mondayService = mondayService;
-        this.whatsAppService = whatsAppService;
+        this.outboxService = outboxService;
+        this.orderNumberAllocator = orderNumberAllocator;
+        this.stockService = stockService;
+        this.orderCounters = orderCounters;
+        this.orderRollups = orderRollups;
+        this.eventPublisher = eventPublisher;
+        this.changesSafetyLagMs = changesSafetyLagMs;
     }
 
     /**
@@ -47,10 +64,15 @@ public class OrderService {
     public Order createOrder(Customer customer, List<OrderItem> items, String shippingAddress,
                            String notes, LocalDateTime estimatedDelivery,
                            String shippingCity, BigDecimal shippingCost, BigDecimal subtotal) {
+        // Fails the checkout before an order number is spent; units go back if the order rolls back
+        StockService.Reservation reservation = stockService.reserve(items);
+        stockService.completeWithTransaction(reservation);
+
         Order order = new Order();
         order.setCustomer(customer);
-        order.setOrderNumber(generateOrderNumber());
-        order.setTrackingCode(generateTrackingCode());
+        long sequence = orderNumberAllocator.nextOrderSequence();
+        order.setOrderNumber(orderNumberAllocator.formatOrderNumber(sequence));
+        order.setTrackingCode(orderNumberAllocator.formatTrackingCode(sequence, LocalDate.now()));
         order.setStatus(OrderStatus.PENDING);
         order.setOrderDate(LocalDateTime.now());
         order.setShippingAddress(shippingAddress);
@@ -70,36 +92,16 @@ public class OrderService {
         order.setOrderItems(items);
 
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.created(savedOrder));
         
         // Update customer statistics
         updateCustomerOrderStats(customer, total);
         
-        // Create item in Monday.com (async, won't fail order if Monday.com is down)
-        try {
-            logger.info("Creating Monday.com item for order: {}", savedOrder.getOrderNumber());
-            String mondayItemId = mondayService.createOrderItem(savedOrder);
-            if (mondayItemId != null) {
-                logger.info("Successfully created Monday.com item {} for order {}", 
-                    mondayItemId, savedOrder.getOrderNumber());
-                // Optionally store mondayItemId in order entity if you add that field
-            } else {
-                logger.warn("Monday.com item creation returned null for order {}", 
-                    savedOrder.getOrderNumber());
-            }
-        } catch (Exception e) {
-            // Log error but don't fail the order
-            logger.error("Failed to create Monday.com item for order {}: {}", 
-                savedOrder.getOrderNumber(), e.getMessage(), e);
-        }
-        
-        // Send WhatsApp confirmation (async, won't fail order if WhatsApp is down)
-        try {
-            logger.info("Sending WhatsApp confirmation for order: {}", savedOrder.getOrderNumber());
-            whatsAppService.sendOrderConfirmation(savedOrder);
-        } catch (Exception e) {
-            logger.error("Failed to send WhatsApp confirmation for order {}: {}", 
-                savedOrder.getOrderNumber(), e.getMessage());
-        }
+        // Monday.com item and WhatsApp confirmation are delivered by the outbox dispatcher
+        // once this transaction commits; neither call delays the checkout nor can fail it
+        outboxService.enqueue(OutboxEventType.MONDAY_ORDER_ITEM, savedOrder.getId());
+        outboxService.enqueue(OutboxEventType.WHATSAPP_ORDER_CONFIRMATION, savedOrder.getId());
+        logger.info("Order {} created, notifications queued", savedOrder.getOrderNumber());
         
         return savedOrder;
     }
@@ -150,12 +152,17 @@ public class OrderService {
      * Handle status-specific actions
      */
     private void handleStatusChange(Order order, OrderStatus previousStatus, OrderStatus newStatus) {
+        if (newStatus != previousStatus) {
+            eventPublisher.publishEvent(OrderChangedEvent.statusChanged(order, previousStatus));
+        }
+
         if (newStatus == OrderStatus.CANCELLED && previousStatus != OrderStatus.CANCELLED) {
             // Refund customer stats when order is cancelled
             Customer customer = order.getCustomer();
             customer.setTotalOrders(Math.max(0, customer.getTotalOrders() - 1));
             customer.setTotalSpent(customer.getTotalSpent().subtract(order.getTotal()).max(BigDecimal.ZERO));
             customerRepository.save(customer);
+            // Units reserved at checkout are given back by StockService once this commits
         }
         
         // You can add email notifications here
@@ -209,10 +216,63 @@ public class OrderService {
      * Get all orders with pagination (sorted by most recent first)
      */
     public List<Order> getAllOrders(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "orderDate"));
-        return orderRepository.findAll(pageable).getContent();
+        return orderRepository.findLatest(PageRequest.of(page, size));
+    }
+
+    /**
+     * Get orders after a keyset cursor (most recent first); a null or empty cursor starts from the newest order
+     */
+    public CursorPage<Order> getOrdersPage(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Order> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = orderRepository.findLatest(limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = orderRepository.findLatestBefore(position.getTimestamp(), position.getId(), limit);
+        }
+        return CursorPage.of(rows, size, o -> new KeysetCursor(o.getOrderDate(), o.getId()));
     }
     
+    /**
+     * Orders created or modified after a change-feed watermark, oldest change first; a null or
+     * empty watermark starts from the beginning. Changes younger than the safety lag are held
+     * back: updatedAt is set before commit, so a slow transaction could otherwise become visible
+     * with a timestamp behind a watermark the client already holds.
+     */
+    @Transactional(readOnly = true)
+    public OrderChanges getOrderChanges(String since, int size) {
+        LocalDateTime until = LocalDateTime.now().minusNanos(changesSafetyLagMs * 1_000_000);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Order> rows;
+        if (since == null || since.isEmpty()) {
+            rows = orderRepository.findChangedUntil(until, limit);
+        } else {
+            KeysetCursor watermark = KeysetCursor.decode(since);
+            rows = orderRepository.findChangedAfter(watermark.getTimestamp(), watermark.getId(), until, limit);
+        }
+        boolean hasMore = rows.size() > size;
+        List<Order> orders = hasMore ? rows.subList(0, size) : rows;
+        String next = since;
+        if (!orders.isEmpty()) {
+            Order last = orders.get(orders.size() - 1);
+            next = new KeysetCursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return new OrderChanges(orders, next, hasMore);
+    }
+
+    /**
+     * Orders saved before updated_at was maintained have no change timestamp; give them their order date
+     * so the change feed includes them
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillUpdatedAt() {
+        int updated = orderRepository.fillMissingUpdatedAt();
+        if (updated > 0) {
+            logger.info("Set updated_at on {} orders for the change feed", updated);
+        }
+    }
+
     /**
      * Get order by ID with items (for detailed view)
      */
@@ -257,10 +317,10 @@ public class OrderService {
     }
 
     /**
-     * Get total revenue in date range
+     * Get delivered revenue in date range, summed from the daily rollups
      */
     public BigDecimal getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate) {
-        return orderRepository.getTotalRevenueBetween(startDate, endDate);
+        return orderRollups.getDeliveredRevenue(startDate, endDate);
     }
 
     /**
@@ -271,33 +331,10 @@ public class OrderService {
     }
 
     /**
-     * Get order statistics
+     * Get order statistics from the in-memory order counters
      */
     public OrderStatistics getOrderStatistics() {
-        long totalOrders = orderRepository.count();
-        long pendingOrders = orderRepository.countByStatus(OrderStatus.PENDING);
-        long confirmedOrders = orderRepository.countByStatus(OrderStatus.CONFIRMED);
-        long processingOrders = orderRepository.countByStatus(OrderStatus.PROCESSING);
-        long shippedOrders = orderRepository.countByStatus(OrderStatus.SHIPPED);
-        long outForDeliveryOrders = orderRepository.countByStatus(OrderStatus.OUT_FOR_DELIVERY);
-        long deliveredOrders = orderRepository.countByStatus(OrderStatus.DELIVERED);
-        long cancelledOrders = orderRepository.countByStatus(OrderStatus.CANCELLED);
-        long refundedOrders = orderRepository.countByStatus(OrderStatus.REFUNDED);
-
-        LocalDateTime monthStart = LocalDateTime.now().minusDays(30);
-        LocalDateTime now = LocalDateTime.now();
-        BigDecimal monthlyRevenue = orderRepository.getTotalRevenueBetween(monthStart, now);
-        if (monthlyRevenue == null) {
-            monthlyRevenue = BigDecimal.ZERO;
-        }
-        
-        // Calculate today's orders
-        LocalDateTime todayStart = LocalDateTime.now().toLocalDate().atStartOfDay();
-        long todaysOrders = orderRepository.findByOrderDateBetween(todayStart, now).size();
-
-        return new OrderStatistics(totalOrders, pendingOrders, confirmedOrders, processingOrders,
-                                 shippedOrders, outForDeliveryOrders, deliveredOrders, 
-                                 cancelledOrders, refundedOrders, monthlyRevenue, todaysOrders);
+        return orderCounters.getStatistics();
     }
 
     /**
@@ -335,37 +372,6 @@ public class OrderService {
         return cancelOrder(orderId, "No reason provided");
     }
 
-    /**
-     * Generate unique order number (format: CMD001, CMD002, etc.)
-     */
-    private String generateOrderNumber() {
-        // Get count of existing orders to generate sequential number
-        long count = orderRepository.count() + 1;
-        return String.format("CMD%03d", count);
-    }
-    
-    /**
-     * Generate unique tracking code for customers
-     */
-    private String generateTrackingCode() {
-        // Format: SL-YYMMDD-XXXX where XXXX is random alphanumeric
-        String datePart = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyMMdd"));
-        String randomPart = generateRandomAlphanumeric(4);
-        return "SL-" + datePart + "-" + randomPart;
-    }
-    
-    /**
-     * Generate random alphanumeric string
-     */
-    private String generateRandomAlphanumeric(int length) {
-        String chars = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789"; // Excluded confusing chars like 0,O,1,I
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            result.append(chars.charAt(secureRandom.nextInt(chars.length())));
-        }
-        return result.toString();
-    }
-
     /**
      * Find order by tracking code
      */
@@ -393,7 +399,9 @@ public class OrderService {
         }
         
         order.setStatus(OrderStatus.CONFIRMED);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.statusChanged(savedOrder, OrderStatus.PENDING));
+        return savedOrder;
     }
     
     /**
@@ -430,6 +438,24 @@ public class OrderService {
         return orderRepository.findByStatusIn(statuses);
     }
 
+    // DTO class for one page of the order change feed
+    public static class OrderChanges {
+        private final List<Order> orders;
+        private final String since;
+        private final boolean hasMore;
+
+        public OrderChanges(List<Order> orders, String since, boolean hasMore) {
+            this.orders = orders;
+            this.since = since;
+            this.hasMore = hasMore;
+        }
+
+        public List<Order> getOrders() { return orders; }
+        // Watermark to send back as ?since= on the next call
+        public String getSince() { return since; }
+        public boolean isHasMore() { return hasMore; }
+    }
+
     // DTO class for statistics
     public static class OrderStatistics {
         private final long totalOrders;
@@ -4,8 +4,11 @@ import com.example.silea.entity.Order;
 import com.example.silea.entity.OrderTracking;
 import com.example.silea.enums.OrderStatus;
 import com.example.silea.enums.TrackingStatus;
+import com.example.silea.event.OrderChangedEvent;
+import com.example.silea.event.TrackingUpdatedEvent;
 import com.example.silea.repository.OrderRepository;
 import com.example.silea.repository.OrderTrackingRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,10 +22,13 @@ public class OrderTrackingService {
 
     private final OrderTrackingRepository orderTrackingRepository;
     private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public OrderTrackingService(OrderTrackingRepository orderTrackingRepository, OrderRepository orderRepository) {
+    public OrderTrackingService(OrderTrackingRepository orderTrackingRepository, OrderRepository orderRepository,
+                                ApplicationEventPublisher eventPublisher) {
         this.orderTrackingRepository = orderTrackingRepository;
         this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -36,7 +42,9 @@ public class OrderTrackingService {
         tracking.setNotes(notes);
         tracking.setStatusDate(LocalDateTime.now());
 
-        return orderTrackingRepository.save(tracking);
+        OrderTracking saved = orderTrackingRepository.save(tracking);
+        eventPublisher.publishEvent(new TrackingUpdatedEvent(saved));
+        return saved;
     }
     
     /**
@@ -52,7 +60,9 @@ public class OrderTrackingService {
         tracking.setNotes(notes);
         tracking.setStatusDate(LocalDateTime.now());
 
-        return orderTrackingRepository.save(tracking);
+        OrderTracking saved = orderTrackingRepository.save(tracking);
+        eventPublisher.publishEvent(new TrackingUpdatedEvent(saved));
+        return saved;
     }
 
     /**
@@ -79,8 +89,10 @@ public class OrderTrackingService {
             if (!shouldUpdateStatus(order.getStatus(), newOrderStatus)) {
                 return;
             }
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(newOrderStatus);
             orderRepository.save(order); // Now properly saves the order
+            eventPublisher.publishEvent(OrderChangedEvent.statusChanged(order, previousStatus));
         }
     }
     
@@ -165,6 +177,14 @@ public class OrderTrackingService {
         return orderTrackingRepository.findOrdersWithDelayedTracking(threshold);
     }
 
+    /**
+     * Count orders with delayed tracking
+     */
+    public long countOrdersWithDelayedTracking(int hoursThreshold) {
+        LocalDateTime threshold = LocalDateTime.now().minusHours(hoursThreshold);
+        return orderTrackingRepository.countOrdersWithDelayedTracking(threshold);
+    }
+
     /**
      * Search tracking by carrier
      */
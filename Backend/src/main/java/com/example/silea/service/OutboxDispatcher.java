@@ -0,0 +1,147 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Order;
+import com.example.silea.entity.OutboxEvent;
+import com.example.silea.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the outbox on a small worker pool. Third-party calls run without a transaction
+ * or database connection held; each event's outcome is recorded in its own short transaction.
+ */
+@Service
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxService outboxService;
+    private final OrderRepository orderRepository;
+    private final MondayService mondayService;
+    private final WhatsAppService whatsAppService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration claimTimeout;
+    private final Duration retention;
+
+    private final ExecutorService workers;
+    // Bounds claimed-but-unfinished events, so a backlog stays in the table rather than in memory
+    private final Semaphore inFlight;
+
+    public OutboxDispatcher(OutboxService outboxService, OrderRepository orderRepository,
+                            MondayService mondayService, WhatsAppService whatsAppService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${outbox.workers:4}") int workerCount,
+                            @Value("${outbox.claim-timeout-ms:300000}") long claimTimeoutMs,
+                            @Value("${outbox.retention-days:7}") int retentionDays) {
+        this.outboxService = outboxService;
+        this.orderRepository = orderRepository;
+        this.mondayService = mondayService;
+        this.whatsAppService = whatsAppService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMs);
+        this.retention = Duration.ofDays(retentionDays);
+        this.inFlight = new Semaphore(workerCount * 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread thread = new Thread(r, "outbox-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<OutboxEvent> events;
+        try {
+            events = outboxService.claimDue(inFlight.availablePermits());
+        } catch (Exception e) {
+            logger.error("Failed to claim outbox events: {}", e.getMessage());
+            return;
+        }
+        for (OutboxEvent event : events) {
+            inFlight.acquireUninterruptibly();
+            workers.execute(() -> {
+                try {
+                    process(event);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.maintenance-interval-ms:60000}")
+    public void maintain() {
+        try {
+            int released = outboxService.releaseStaleClaims(claimTimeout);
+            if (released > 0) {
+                logger.warn("Released {} stale outbox claims", released);
+            }
+            outboxService.purgeSent(retention);
+        } catch (Exception e) {
+            logger.error("Outbox maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        // Anything still running is released by the claim timeout on the next start
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void process(OutboxEvent event) {
+        try {
+            deliver(event);
+            outboxService.markSent(event.getId());
+        } catch (Exception e) {
+            try {
+                outboxService.markFailed(event.getId(), e.getClass().getSimpleName() + ": " + e.getMessage());
+            } catch (Exception markError) {
+                logger.error("Failed to record outbox failure for event {}: {}", event.getId(), markError.getMessage());
+            }
+        }
+    }
+
+    private void deliver(OutboxEvent event) {
+        // Load everything the message needs, then call out with no transaction open
+        Order order = readOnlyTransaction.execute(status ->
+                orderRepository.findForNotificationById(event.getAggregateId()).orElse(null));
+        if (order == null) {
+            throw new IllegalStateException("Order not found: " + event.getAggregateId());
+        }
+
+        switch (event.getEventType()) {
+            case MONDAY_ORDER_ITEM:
+                if (!mondayService.isEnabled()) {
+                    return;
+                }
+                String mondayItemId = mondayService.createOrderItem(order);
+                if (mondayItemId == null) {
+                    throw new IllegalStateException("Monday.com item creation failed for order " + order.getOrderNumber());
+                }
+                logger.info("Created Monday.com item {} for order {}", mondayItemId, order.getOrderNumber());
+                break;
+            case WHATSAPP_ORDER_CONFIRMATION:
+                whatsAppService.deliverOrderConfirmation(order);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported outbox event type: " + event.getEventType());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.OutboxEvent;
+import com.example.silea.enums.OutboxEventType;
+import com.example.silea.enums.OutboxStatus;
+import com.example.silea.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Transactional outbox: side effects are recorded as rows in the caller's transaction,
+ * so they exist if and only if the change that caused them committed.
+ * {@link OutboxDispatcher} claims and delivers them in the background.
+ */
+@Service
+@Transactional
+public class OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         @Value("${outbox.max-attempts:8}") int maxAttempts,
+                         @Value("${outbox.base-backoff-ms:2000}") long baseBackoffMs,
+                         @Value("${outbox.max-backoff-ms:600000}") long maxBackoffMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * Record a side effect; must be called inside the transaction of the change it belongs to
+     */
+    public OutboxEvent enqueue(OutboxEventType eventType, Long aggregateId) {
+        return outboxEventRepository.save(new OutboxEvent(eventType, aggregateId));
+    }
+
+    /**
+     * Claim up to limit due events. A conditional UPDATE per row makes the claim safe
+     * across dispatcher threads and application instances.
+     */
+    public List<OutboxEvent> claimDue(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : outboxEventRepository.findDueIds(now, PageRequest.of(0, limit))) {
+            if (outboxEventRepository.claim(id, now) == 1) {
+                claimed.add(id);
+            }
+        }
+        return claimed.isEmpty() ? List.of() : outboxEventRepository.findAllById(claimed);
+    }
+
+    public void markSent(Long eventId) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> {
+            event.setStatus(OutboxStatus.SENT);
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(null);
+            event.setProcessedAt(LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or dead-letter the event once attempts are exhausted
+     */
+    public void markFailed(Long eventId, String error) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxStatus.DEAD);
+                event.setProcessedAt(LocalDateTime.now());
+                logger.error("Outbox event {} ({} for {}) dead-lettered after {} attempts: {}",
+                        event.getId(), event.getEventType(), event.getAggregateId(), attempts, error);
+            } else {
+                event.setStatus(OutboxStatus.PENDING);
+                event.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+                logger.warn("Outbox event {} ({} for {}) failed, attempt {}/{}: {}",
+                        event.getId(), event.getEventType(), event.getAggregateId(), attempts, maxAttempts, error);
+            }
+        });
+    }
+
+    /**
+     * Put events claimed longer than the timeout back in the queue (worker crashed or instance stopped)
+     */
+    public int releaseStaleClaims(Duration timeout) {
+        return outboxEventRepository.releaseStaleClaims(LocalDateTime.now().minus(timeout));
+    }
+
+    public int purgeSent(Duration retention) {
+        return outboxEventRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+    }
+
+    /**
+     * Exponentially growing, capped delay; half of it is randomized so retries of a burst spread out
+     */
+    private Duration backoff(int attempts) {
+        long window = baseBackoffMs << Math.min(attempts - 1, 30);
+        if (window <= 0 || window > maxBackoffMs) {
+            window = maxBackoffMs;
+        }
+        long delay = window / 2 + ThreadLocalRandom.current().nextLong(window / 2 + 1);
+        return Duration.ofMillis(delay);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.silea.service;
+
+import com.example.silea.enums.ProductSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Signed price quotes: the cart summary hands out a compact HMAC-signed token carrying the priced
+ * lines and shipping, and order creation trusts those prices instead of repricing, as long as the
+ * token is intact, unexpired, for the same city, and neither the catalog nor the shipping rules
+ * changed since it was issued. Any mismatch simply means the order is priced from scratch.
+ */
+@Service
+public class PriceQuoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceQuoteService.class);
+
+    private static final byte FORMAT = 1;
+    private static final String ALGORITHM = "HmacSHA256";
+    // A truncated HMAC-SHA256 tag is still 128 bits, plenty for a token that lives minutes
+    private static final int TAG_BYTES = 16;
+
+    private final CatalogVersionService catalogVersionService;
+    private final ShippingRulesEngine shippingRules;
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+
+    public PriceQuoteService(CatalogVersionService catalogVersionService, ShippingRulesEngine shippingRules,
+                             @Value("${cart.quote.secret:}") String secret,
+                             @Value("${cart.quote.ttl-minutes:30}") long ttlMinutes) {
+        this.catalogVersionService = catalogVersionService;
+        this.shippingRules = shippingRules;
+        this.ttlSeconds = Math.max(1, ttlMinutes) * 60;
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            // Tokens then only verify on this instance; elsewhere they fall back to full pricing
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            logger.warn("cart.quote.secret is not set, using a random per-instance key for price quotes");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    /**
+     * Capture the catalog and shipping rule versions; take it before loading the products
+     * being priced, so a change racing the pricing makes the token stale instead of wrong
+     */
+    public Stamp stamp() {
+        return new Stamp(catalogVersionService.currentVersion(), shippingRules.getRulesVersion());
+    }
+
+    /**
+     * Sign the prices of an evaluated cart, or return null when the cart cannot be ordered as is
+     * (invalid products, missing sizes, or no delivery to the city)
+     */
+    public IssuedQuote issue(CartEvaluation evaluation, Stamp stamp) {
+        int count = evaluation.getLines().size();
+        if (!evaluation.isValid() || !evaluation.isShippingAvailable() || count == 0 || count > 0xFFFF) {
+            return null;
+        }
+        long expiresAt = Instant.now().getEpochSecond() + ttlSeconds;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + count * 21);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeLong(stamp.catalogVersion);
+            out.writeLong(stamp.rulesVersion);
+            out.writeLong(expiresAt);
+            out.writeUTF(TextNormalizer.normalize(evaluation.getCity()));
+            out.writeLong(Money.toCentimes(evaluation.getShipping()));
+            out.writeShort(count);
+            for (CartEvaluation.Line line : evaluation.getLines()) {
+                if (line.getSize() == null) {
+                    return null;
+                }
+                out.writeLong(line.getProduct().getId());
+                out.writeByte(line.getSize().ordinal());
+                out.writeInt(line.getQuantity());
+                out.writeLong(line.getUnitPriceCentimes());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] payload = bytes.toByteArray();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString(payload) + "." + encoder.encodeToString(tag(payload));
+        return new IssuedQuote(token, Instant.ofEpochSecond(expiresAt));
+    }
+
+    /**
+     * Verified quote for the given delivery city, or null when the token is missing, forged,
+     * expired, issued for another city, or priced under a catalog or shipping rules version
+     * that is no longer current
+     */
+    public Quote verify(String token, String city) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            int dot = token.indexOf('.');
+            if (dot < 0) {
+                return null;
+            }
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            String encodedPayload = token.substring(0, dot);
+            String encodedTag = token.substring(dot + 1);
+            byte[] payload = decoder.decode(encodedPayload);
+            byte[] tag = decoder.decode(encodedTag);
+            // The decoder ignores the padding bits of the last character; only accept the one
+            // encoding issue() produces, so no two distinct tokens verify as the same quote
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            if (!encoder.encodeToString(payload).equals(encodedPayload) || !encoder.encodeToString(tag).equals(encodedTag)) {
+                return null;
+            }
+            if (!MessageDigest.isEqual(tag, tag(payload))) {
+                logger.warn("Rejected price quote with an invalid signature");
+                return null;
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            if (in.readByte() != FORMAT) {
+                return null;
+            }
+            long catalogVersion = in.readLong();
+            long rulesVersion = in.readLong();
+            long expiresAt = in.readLong();
+            String quotedCity = in.readUTF();
+            if (expiresAt < Instant.now().getEpochSecond()
+                    || catalogVersion != catalogVersionService.currentVersion()
+                    || rulesVersion != shippingRules.getRulesVersion()
+                    || !quotedCity.equals(TextNormalizer.normalize(city))) {
+                return null;
+            }
+            long shipping = in.readLong();
+            int count = in.readUnsignedShort();
+            ProductSize[] sizes = ProductSize.values();
+            List<Line> lines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long productId = in.readLong();
+                int size = in.readUnsignedByte();
+                int quantity = in.readInt();
+                long unitPrice = in.readLong();
+                if (size >= sizes.length) {
+                    return null;
+                }
+                lines.add(new Line(productId, sizes[size], quantity, unitPrice));
+            }
+            return new Quote(Collections.unmodifiableList(lines), shipping);
+        } catch (IllegalArgumentException | IOException e) {
+            // Malformed base64 or truncated payload
+            return null;
+        }
+    }
+
+    private byte[] tag(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), TAG_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC unavailable", e);
+        }
+    }
+
+    /**
+     * Catalog and shipping rule versions a quote is priced under
+     */
+    public static final class Stamp {
+        private final long catalogVersion;
+        private final long rulesVersion;
+
+        private Stamp(long catalogVersion, long rulesVersion) {
+            this.catalogVersion = catalogVersion;
+            this.rulesVersion = rulesVersion;
+        }
+    }
+
+    public static class IssuedQuote {
+        private final String token;
+        private final Instant expiresAt;
+
+        public IssuedQuote(String token, Instant expiresAt) {
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getToken() { return token; }
+        public Instant getExpiresAt() { return expiresAt; }
+    }
+
+    public static class Quote {
+        private final List<Line> lines;
+        private final long shippingCentimes;
+
+        public Quote(List<Line> lines, long shippingCentimes) {
+            this.lines = lines;
+            this.shippingCentimes = shippingCentimes;
+        }
+
+        public List<Line> getLines() { return lines; }
+        public long getShippingCentimes() { return shippingCentimes; }
+        public BigDecimal getShipping() { return Money.toAmount(shippingCentimes); }
+    }
+
+    public static class Line {
+        private final long productId;
+        private final ProductSize size;
+        private final int quantity;
+        private final long unitPriceCentimes;
+
+        public Line(long productId, ProductSize size, int quantity, long unitPriceCentimes) {
+            this.productId = productId;
+            this.size = size;
+            this.quantity = quantity;
+            this.unitPriceCentimes = unitPriceCentimes;
+        }
+
+        public long getProductId() { return productId; }
+        public ProductSize getSize() { return size; }
+        public int getQuantity() { return quantity; }
+        public long getUnitPriceCentimes() { return unitPriceCentimes; }
+        public BigDecimal getUnitPrice() { return Money.toAmount(unitPriceCentimes); }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Product;
+import com.example.silea.entity.ProductSizePrice;
+import com.example.silea.enums.ProductSize;
+import com.example.silea.event.CatalogChangedEvent;
+import com.example.silea.repository.ProductRepository;
+import com.example.silea.repository.ProductSizePriceRepository;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit price of a product in a size: the ProductSizePrice override when one exists, otherwise
+ * the base price times the size multiplier. Prices live in a dense table of centimes
+ * (one row per product, one column per size plus the base price), rebuilt copy-on-write
+ * from catalog change events and swapped in atomically, so a lookup is two array reads.
+ */
+@Service
+public class PriceResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceResolver.class);
+
+    private static final ProductSize[] SIZES = ProductSize.values();
+    // Columns 0..SIZES-1 are the sizes, the last one is the base price (no size)
+    private static final int BASE_COLUMN = SIZES.length;
+    private static final int STRIDE = SIZES.length + 1;
+    private static final int NO_ROW = -1;
+
+    private final ProductRepository productRepository;
+    private final ProductSizePriceRepository sizePriceRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Table table = Table.EMPTY;
+    private volatile boolean ready = false;
+
+    public PriceResolver(ProductRepository productRepository, ProductSizePriceRepository sizePriceRepository,
+                         PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.sizePriceRepository = sizePriceRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Unit price in centimes of a product in a size (null size: the base price)
+     */
+    public long resolve(Product product, ProductSize size) {
+        if (!ready) {
+            rebuild();
+        }
+        Long id = product.getId();
+        if (id != null) {
+            Table current = table;
+            if (id < current.rowById.length) {
+                int row = current.rowById[id.intValue()];
+                if (row != NO_ROW) {
+                    return current.prices[row * STRIDE + (size == null ? BASE_COLUMN : size.ordinal())];
+                }
+            }
+        }
+        // Not in the table yet (created moments ago): price from the entity itself
+        return fromEntity(product, size);
+    }
+
+    /**
+     * Unit price of a product in a size as an amount
+     */
+    public BigDecimal resolvePrice(Product product, ProductSize size) {
+        return Money.toAmount(resolve(product, size));
+    }
+
+    /**
+     * Rebuild the whole table from the database
+     */
+    public synchronized void rebuild() {
+        Table built = readOnlyTransaction.execute(status -> {
+            List<Object[]> basePrices = productRepository.findAllPrices();
+            long maxId = 0;
+            for (Object[] row : basePrices) {
+                maxId = Math.max(maxId, (Long) row[0]);
+            }
+            int[] rowById = new int[Math.toIntExact(maxId + 1)];
+            Arrays.fill(rowById, NO_ROW);
+            long[] prices = new long[basePrices.size() * STRIDE];
+            int rows = 0;
+            for (Object[] row : basePrices) {
+                int id = ((Long) row[0]).intValue();
+                rowById[id] = rows;
+                fillComputed(prices, rows, Money.toCentimes((BigDecimal) row[1]));
+                rows++;
+            }
+            for (Object[] row : sizePriceRepository.findAllPrices()) {
+                int id = ((Long) row[0]).intValue();
+                if (id < rowById.length && rowById[id] != NO_ROW && row[2] != null) {
+                    prices[rowById[id] * STRIDE + ((ProductSize) row[1]).ordinal()] = Money.toCentimes((BigDecimal) row[2]);
+                }
+            }
+            return new Table(rowById, prices);
+        });
+        table = built;
+        ready = true;
+        logger.info("Price table built: {} products", built.prices.length / STRIDE);
+    }
+
+    /**
+     * Reload one product's row, adding or dropping it as needed
+     */
+    public synchronized void refresh(Long productId) {
+        long[] row = readOnlyTransaction.execute(status -> productRepository.findPriceById(productId)
+                .map(basePrice -> {
+                    long[] loaded = new long[STRIDE];
+                    fillComputed(loaded, 0, Money.toCentimes(basePrice));
+                    for (Object[] sizePrice : sizePriceRepository.findPricesByProductIds(List.of(productId))) {
+                        if (sizePrice[2] != null) {
+                            loaded[((ProductSize) sizePrice[1]).ordinal()] = Money.toCentimes((BigDecimal) sizePrice[2]);
+                        }
+                    }
+                    return loaded;
+                })
+                .orElse(null));
+
+        Table current = table;
+        int id = Math.toIntExact(productId);
+        int existing = id < current.rowById.length ? current.rowById[id] : NO_ROW;
+        if (row == null) {
+            if (existing != NO_ROW) {
+                int[] rowById = current.rowById.clone();
+                rowById[id] = NO_ROW;
+                table = new Table(rowById, current.prices);
+            }
+            return;
+        }
+        if (existing != NO_ROW) {
+            long[] prices = current.prices.clone();
+            System.arraycopy(row, 0, prices, existing * STRIDE, STRIDE);
+            table = new Table(current.rowById, prices);
+        } else {
+            int[] rowById = Arrays.copyOf(current.rowById, Math.max(current.rowById.length, id + 1));
+            Arrays.fill(rowById, current.rowById.length, rowById.length, NO_ROW);
+            long[] prices = Arrays.copyOf(current.prices, current.prices.length + STRIDE);
+            System.arraycopy(row, 0, prices, current.prices.length, STRIDE);
+            rowById[id] = current.prices.length / STRIDE;
+            table = new Table(rowById, prices);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Runs with the caches, before the catalog version is bumped, so a price quote stamped
+     * with the new version is always priced from the new table
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        try {
+            if (event.isSingleProduct() && ready) {
+                refresh(event.getProductId());
+            } else {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update price table: {}", e.getMessage());
+            // Next lookup rebuilds rather than serving a price that may be stale
+            ready = false;
+        }
+    }
+
+    private static void fillComputed(long[] prices, int row, long baseCentimes) {
+        int offset = row * STRIDE;
+        for (ProductSize size : SIZES) {
+            prices[offset + size.ordinal()] = Money.unitPrice(baseCentimes, size);
+        }
+        prices[offset + BASE_COLUMN] = baseCentimes;
+    }
+
+    private static long fromEntity(Product product, ProductSize size) {
+        if (size != null && product.getSizePrices() != null && Hibernate.isInitialized(product.getSizePrices())) {
+            for (ProductSizePrice sizePrice : product.getSizePrices()) {
+                if (sizePrice.getSize() == size && sizePrice.getPrice() != null) {
+                    return Money.toCentimes(sizePrice.getPrice());
+                }
+            }
+        }
+        return Money.unitPrice(product.getPriceCentimes(), size);
+    }
+
+    private static final class Table {
+        private static final Table EMPTY = new Table(new int[0], new long[0]);
+
+        private final int[] rowById;
+        private final long[] prices;
+
+        private Table(int[] rowById, long[] prices) {
+            this.rowById = rowById;
+            this.prices = prices;
+        }
+    }
+}
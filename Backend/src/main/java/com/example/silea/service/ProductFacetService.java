@@ -0,0 +1,321 @@
+package com.example.silea.service;
+
+import com.example.silea.dto.ProductListItem;
+import com.example.silea.enums.ProductSize;
+import com.example.silea.enums.ShippingClass;
+import com.example.silea.event.CatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory faceted filtering over the catalog. Every product gets an ordinal and every facet
+ * value keeps a bitmap of the ordinals that have it; a query is a handful of bitmap ANDs/ORs and
+ * facet counts are cardinalities of those bitmaps. Values of one facet are OR-ed, facets are AND-ed.
+ *
+ * A product is indexed under every size it can be bought in: all sizes of its category's class
+ * (oil or honey, priced by multiplier when there is no size price row), or only its size price
+ * rows when its category belongs to neither class.
+ */
+@Service
+public class ProductFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetService.class);
+
+    public static final String FACET_CATEGORY = "category";
+    public static final String FACET_PRICE_RANGE = "priceRange";
+    public static final String FACET_SIZE = "sizes";
+    public static final String FACET_AVAILABLE = "available";
+    public static final String FACET_FEATURED = "featured";
+    public static final String FACET_STATUS = "status";
+
+    private final ProductService productService;
+    private final ShippingRulesEngine shippingRules;
+    private final BigDecimal[] priceBounds;
+    private final List<String> priceRangeKeys;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ordinal -> product; removed products leave a null slot that is reused
+    private final List<ProductListItem> products = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, Map<String, BitSet>> facets = new LinkedHashMap<>();
+    private volatile boolean ready = false;
+
+    public ProductFacetService(ProductService productService, ShippingRulesEngine shippingRules,
+                               @Value("${catalog.facets.price-bounds:100,200,300,500}") List<BigDecimal> priceBounds) {
+        this.productService = productService;
+        this.shippingRules = shippingRules;
+        this.priceBounds = priceBounds.stream().sorted().toArray(BigDecimal[]::new);
+        this.priceRangeKeys = new ArrayList<>();
+        for (int i = 0; i <= this.priceBounds.length; i++) {
+            priceRangeKeys.add(priceRangeKey(i));
+        }
+        for (String facet : List.of(FACET_CATEGORY, FACET_PRICE_RANGE, FACET_SIZE, FACET_AVAILABLE, FACET_FEATURED, FACET_STATUS)) {
+            facets.put(facet, new HashMap<>());
+        }
+    }
+
+    /**
+     * Filter the catalog. Each map entry is a facet and the values accepted for it (OR);
+     * minPrice/maxPrice narrow further on the exact base price.
+     */
+    public FilterResult filter(Map<String, Collection<String>> selected, BigDecimal minPrice, BigDecimal maxPrice,
+                               String sort, int page, int size) {
+        if (!ready) {
+            rebuild();
+        }
+        lock.readLock().lock();
+        try {
+            // One mask per facet: OR of its selected values, or every live product when unconstrained
+            Map<String, BitSet> masks = new HashMap<>();
+            for (Map.Entry<String, Map<String, BitSet>> facet : facets.entrySet()) {
+                Collection<String> values = selected.get(facet.getKey());
+                BitSet mask = new BitSet();
+                if (values == null || values.isEmpty()) {
+                    mask.or(live);
+                } else {
+                    for (String value : values) {
+                        BitSet bits = facet.getValue().get(value);
+                        if (bits != null) {
+                            mask.or(bits);
+                        }
+                    }
+                }
+                masks.put(facet.getKey(), mask);
+            }
+            BitSet priceMask = priceMask(minPrice, maxPrice);
+
+            BitSet matches = (BitSet) priceMask.clone();
+            masks.values().forEach(matches::and);
+
+            // Counts per value ignore the facet's own selection, so other values stay reachable
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, BitSet>> facet : facets.entrySet()) {
+                BitSet others = (BitSet) priceMask.clone();
+                masks.forEach((name, mask) -> {
+                    if (!name.equals(facet.getKey())) {
+                        others.and(mask);
+                    }
+                });
+                Map<String, Integer> valueCounts = new LinkedHashMap<>();
+                for (Map.Entry<String, BitSet> value : facet.getValue().entrySet()) {
+                    BitSet bits = (BitSet) value.getValue().clone();
+                    bits.and(others);
+                    if (!bits.isEmpty()) {
+                        valueCounts.put(value.getKey(), bits.cardinality());
+                    }
+                }
+                counts.put(facet.getKey(), valueCounts);
+            }
+
+            List<ProductListItem> items = new ArrayList<>(matches.cardinality());
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                items.add(products.get(ordinal));
+            }
+            items.sort(comparator(sort));
+            // In long: page * size overflows int for far-out pages
+            int from = (int) Math.min((long) page * size, items.size());
+            int to = (int) Math.min((long) from + size, items.size());
+            return new FilterResult(new ArrayList<>(items.subList(from, to)), items.size(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild all bitmaps from the database
+     */
+    public synchronized void rebuild() {
+        List<ProductListItem> loaded = productService.getAllListItems();
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            ordinals.clear();
+            live.clear();
+            facets.values().forEach(Map::clear);
+            loaded.forEach(this::add);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product facet index built: {} products", loaded.size());
+    }
+
+    /**
+     * Re-index one product in place
+     */
+    public void refresh(Long productId) {
+        ProductListItem item = productService.findListItem(productId).orElse(null);
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+            if (item != null) {
+                add(item);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        try {
+            if (event.isSingleProduct() && ready) {
+                refresh(event.getProductId());
+            } else {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update product facet index: {}", e.getMessage());
+        }
+    }
+
+    private void add(ProductListItem item) {
+        int ordinal = live.nextClearBit(0);
+        if (ordinal < products.size()) {
+            products.set(ordinal, item);
+        } else {
+            products.add(item);
+        }
+        ordinals.put(item.getId(), ordinal);
+        live.set(ordinal);
+
+        if (item.getCategory() != null) {
+            set(FACET_CATEGORY, String.valueOf(item.getCategory().getId()), ordinal);
+        }
+        if (item.getPrice() != null) {
+            set(FACET_PRICE_RANGE, priceRangeKeys.get(priceRangeIndex(item.getPrice())), ordinal);
+        }
+        ShippingClass shippingClass = item.getCategory() != null
+                ? shippingRules.classifyName(item.getCategory().getName()) : null;
+        if (shippingClass != null) {
+            for (ProductSize size : ProductSize.values()) {
+                if (shippingClass == ShippingClass.OIL ? size.isOilSize() : size.isHoneySize()) {
+                    set(FACET_SIZE, size.name(), ordinal);
+                }
+            }
+        } else {
+            for (ProductListItem.SizePrice sizePrice : item.getSizePrices()) {
+                set(FACET_SIZE, sizePrice.getSize().name(), ordinal);
+            }
+        }
+        set(FACET_AVAILABLE, String.valueOf(Boolean.TRUE.equals(item.getAvailable())), ordinal);
+        set(FACET_FEATURED, String.valueOf(Boolean.TRUE.equals(item.getFeatured())), ordinal);
+        if (item.getStatus() != null) {
+            set(FACET_STATUS, item.getStatus().name(), ordinal);
+        }
+    }
+
+    private void remove(Long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        products.set(ordinal, null);
+        for (Map<String, BitSet> values : facets.values()) {
+            values.values().removeIf(bits -> {
+                bits.clear(ordinal);
+                return bits.isEmpty();
+            });
+        }
+    }
+
+    private void set(String facet, String value, int ordinal) {
+        facets.get(facet).computeIfAbsent(value, v -> new BitSet()).set(ordinal);
+    }
+
+    private BitSet priceMask(BigDecimal minPrice, BigDecimal maxPrice) {
+        BitSet mask = (BitSet) live.clone();
+        if (minPrice == null && maxPrice == null) {
+            return mask;
+        }
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            BigDecimal price = products.get(ordinal).getPrice();
+            if (price == null
+                    || (minPrice != null && price.compareTo(minPrice) < 0)
+                    || (maxPrice != null && price.compareTo(maxPrice) > 0)) {
+                mask.clear(ordinal);
+            }
+        }
+        return mask;
+    }
+
+    private int priceRangeIndex(BigDecimal price) {
+        int index = 0;
+        while (index < priceBounds.length && price.compareTo(priceBounds[index]) >= 0) {
+            index++;
+        }
+        return index;
+    }
+
+    private String priceRangeKey(int index) {
+        if (index == priceBounds.length) {
+            return (index == 0 ? "0" : priceBounds[index - 1].toPlainString()) + "+";
+        }
+        String lower = index == 0 ? "0" : priceBounds[index - 1].toPlainString();
+        return lower + "-" + priceBounds[index].toPlainString();
+    }
+
+    private static Comparator<ProductListItem> comparator(String sort) {
+        Comparator<ProductListItem> newest = Comparator.comparing(ProductListItem::getCreatedAt,
+                Comparator.nullsLast(Comparator.reverseOrder()));
+        if (sort == null) {
+            return newest.thenComparing(ProductListItem::getId, Comparator.reverseOrder());
+        }
+        switch (sort) {
+            case "price_asc":
+                return Comparator.comparing(ProductListItem::getPrice, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(ProductListItem::getId);
+            case "price_desc":
+                return Comparator.comparing(ProductListItem::getPrice, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(ProductListItem::getId);
+            case "name":
+                return Comparator.comparing(ProductListItem::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                        .thenComparing(ProductListItem::getId);
+            default:
+                return newest.thenComparing(ProductListItem::getId, Comparator.reverseOrder());
+        }
+    }
+
+    // DTO class for filter results
+    public static class FilterResult {
+        private final List<ProductListItem> products;
+        private final int total;
+        private final Map<String, Map<String, Integer>> facets;
+
+        public FilterResult(List<ProductListItem> products, int total, Map<String, Map<String, Integer>> facets) {
+            this.products = products;
+            this.total = total;
+            this.facets = facets;
+        }
+
+        public List<ProductListItem> getProducts() { return products; }
+        public int getTotal() { return total; }
+        public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    }
+}
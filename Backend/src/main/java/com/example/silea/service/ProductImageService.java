@@ -0,0 +1,117 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Product;
+import com.example.silea.entity.ProductImage;
+import com.example.silea.event.CatalogChangedEvent;
+import com.example.silea.repository.ProductImageRepository;
+import com.example.silea.repository.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Product gallery mutations. Each operation is a fixed number of set-based statements, whatever
+ * the gallery size, and keeps the product's legacy imageUrl equal to its primary image.
+ */
+@Service
+@Transactional
+public class ProductImageService {
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductImageService(ProductImageRepository productImageRepository, ProductRepository productRepository,
+                               ApplicationEventPublisher eventPublisher) {
+        this.productImageRepository = productImageRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Append images to a product's gallery; the first one becomes primary if the gallery was empty
+     */
+    public List<ProductImage> addImages(Long productId, List<String> imageUrls) {
+        Product product = productRepository.getReferenceById(productId);
+        int currentCount = (int) productImageRepository.countByProductId(productId);
+        List<ProductImage> images = new ArrayList<>(imageUrls.size());
+        for (int i = 0; i < imageUrls.size(); i++) {
+            boolean isPrimary = currentCount == 0 && i == 0;
+            images.add(new ProductImage(imageUrls.get(i), product, currentCount + i, isPrimary));
+        }
+        List<ProductImage> saved = productImageRepository.saveAll(images);
+        if (currentCount == 0 && !saved.isEmpty()) {
+            productRepository.syncImageUrl(productId, LocalDateTime.now());
+        }
+        markChanged(productId);
+        return saved;
+    }
+
+    /**
+     * Delete an image of a product; if it was the primary one, the next image in display order
+     * takes over. The image row stays locked from the ownership check to the promotion.
+     *
+     * @return false if the image does not exist
+     * @throws IllegalArgumentException if the image belongs to another product
+     */
+    public boolean deleteImage(Long productId, Long imageId) {
+        Optional<ProductImageRepository.ImageOwner> owner = productImageRepository.findOwnerByIdForUpdate(imageId);
+        if (owner.isEmpty()) {
+            return false;
+        }
+        if (!owner.get().getProductId().equals(productId)) {
+            throw new IllegalArgumentException("Image does not belong to this product");
+        }
+        boolean wasPrimary = Boolean.TRUE.equals(owner.get().getIsPrimary());
+        productImageRepository.deleteByImageId(imageId);
+        if (wasPrimary) {
+            productImageRepository.promoteFirstImage(productId);
+            productRepository.syncImageUrl(productId, LocalDateTime.now());
+        }
+        markChanged(productId);
+        return true;
+    }
+
+    /**
+     * Make an image the product's primary image. The image row stays locked from the ownership
+     * check to the update, so a concurrent delete cannot slip in between.
+     *
+     * @return false if the image does not exist
+     * @throws IllegalArgumentException if the image belongs to another product
+     */
+    public boolean setPrimaryImage(Long productId, Long imageId) {
+        Optional<ProductImageRepository.ImageOwner> owner = productImageRepository.findOwnerByIdForUpdate(imageId);
+        if (owner.isEmpty()) {
+            return false;
+        }
+        if (!owner.get().getProductId().equals(productId)) {
+            throw new IllegalArgumentException("Image does not belong to this product");
+        }
+        productImageRepository.setPrimaryForProduct(productId, imageId);
+        productRepository.syncImageUrl(productId, LocalDateTime.now());
+        markChanged(productId);
+        return true;
+    }
+
+    /**
+     * Give each listed image its position in the list as display order, in a single UPDATE.
+     * Ids of other products' images are ignored.
+     */
+    public int reorderImages(Long productId, List<Long> imageIds) {
+        if (imageIds == null || imageIds.isEmpty()) {
+            return 0;
+        }
+        int updated = productImageRepository.reorder(productId, imageIds);
+        markChanged(productId);
+        return updated;
+    }
+
+    private void markChanged(Long productId) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
+    }
+}
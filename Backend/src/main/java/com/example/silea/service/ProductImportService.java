@@ -0,0 +1,708 @@
+package com.example.silea.service;
+
+import com.example.silea.enums.ProductSize;
+import com.example.silea.enums.ProductStatus;
+import com.example.silea.event.CatalogChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk product import from CSV or NDJSON. The input is read as a stream and written in
+ * chunks: every chunk is one transaction made of batched JDBC statements (product updates,
+ * product inserts, size price upserts, image replacement). Invalid rows are reported with
+ * their line number and skipped; the rest of the file is still imported.
+ *
+ * Rows are matched to existing products by id, or by name (ignoring case and accents, as the
+ * column's collation does) when no id is given.
+ * Columns: id, name, nameAr, description, descriptionFr, descriptionAr, price, categoryId,
+ * available, featured, status, imageUrl, imageUrls (CSV: separated by |) and one price column
+ * per size named after the size (OIL_5L or 5L, ...). NDJSON may also use a sizePrices object.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String UPDATE_PRODUCT_SQL =
+            "UPDATE products SET name = ?, name_ar = ?, description = COALESCE(?, description), " +
+            "description_fr = COALESCE(?, description_fr), description_ar = COALESCE(?, description_ar), " +
+            "price = ?, available = COALESCE(?, available), featured = COALESCE(?, featured), " +
+            "status = COALESCE(?, status), category_id = ?, image_url = COALESCE(?, image_url), updated_at = ? " +
+            "WHERE id = ?";
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (name, name_ar, description, description_fr, description_ar, price, available, " +
+            "featured, status, category_id, image_url, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_SIZE_PRICE_SQL =
+            "INSERT INTO product_size_prices (product_id, size, price) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE price = VALUES(price)";
+    private static final String INSERT_IMAGE_SQL =
+            "INSERT INTO product_images (product_id, image_url, display_order, is_primary, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                                @Value("${catalog.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Import a CSV stream (RFC 4180, first record is the header). If the stream breaks off
+     * (malformed quoting, read error), rows read before that point are still imported and the
+     * report is marked aborted.
+     */
+    public ImportReport importCsv(InputStream input) {
+        ImportReport report = new ImportReport();
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        try {
+            readCsv(input, chunk, report);
+        } catch (IOException e) {
+            report.abort(e.getMessage());
+        } finally {
+            complete(chunk, report);
+        }
+        return report;
+    }
+
+    /**
+     * Import an NDJSON stream (one JSON object per line); a read error is handled as for CSV
+     */
+    public ImportReport importNdjson(InputStream input) {
+        ImportReport report = new ImportReport();
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+        try {
+            readNdjson(input, chunk, report);
+        } catch (IOException e) {
+            report.abort(e.getMessage());
+        } finally {
+            complete(chunk, report);
+        }
+        return report;
+    }
+
+    private void readCsv(InputStream input, List<ImportRow> chunk, ImportReport report) throws IOException {
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : header) {
+            columns.add(column.trim());
+        }
+
+        Set<Long> categoryIds = loadCategoryIds();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            int line = csv.getRecordLine();
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            report.processed++;
+            try {
+                Map<String, String> values = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < record.size(); i++) {
+                    values.put(columns.get(i), record.get(i));
+                }
+                chunk.add(ImportRow.fromCsv(line, values, categoryIds));
+            } catch (IllegalArgumentException e) {
+                report.addError(line, e.getMessage());
+            }
+            if (chunk.size() >= batchSize) {
+                writeChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+    }
+
+    private void readNdjson(InputStream input, List<ImportRow> chunk, ImportReport report) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Set<Long> categoryIds = loadCategoryIds();
+        String text;
+        int line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            report.processed++;
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (node == null || !node.isObject()) {
+                    throw new IllegalArgumentException("Line is not a JSON object");
+                }
+                chunk.add(ImportRow.fromJson(line, node, categoryIds));
+            } catch (JsonProcessingException e) {
+                report.addError(line, "Invalid JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                report.addError(line, e.getMessage());
+            }
+            if (chunk.size() >= batchSize) {
+                writeChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+    }
+
+    /**
+     * Write the rows still pending and announce the change, also when the input broke off:
+     * earlier chunks are already committed and caches must not keep serving the old catalog
+     */
+    private void complete(List<ImportRow> chunk, ImportReport report) {
+        try {
+            writeChunk(chunk, report);
+        } finally {
+            finish(report);
+        }
+    }
+
+    private ImportReport finish(ImportReport report) {
+        if (report.inserted + report.updated > 0) {
+            eventPublisher.publishEvent(CatalogChangedEvent.all());
+        }
+        if (report.aborted) {
+            logger.warn("Product import stopped early ({}): {} rows, {} inserted, {} updated, {} failed",
+                    report.abortReason, report.processed, report.inserted, report.updated, report.failed);
+        } else {
+            logger.info("Product import finished: {} rows, {} inserted, {} updated, {} failed",
+                    report.processed, report.inserted, report.updated, report.failed);
+        }
+        return report;
+    }
+
+    private Set<Long> loadCategoryIds() {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM categories", Long.class));
+    }
+
+    /**
+     * Write one chunk in a single transaction; if the database rejects it, every row of the chunk is reported
+     */
+    private void writeChunk(List<ImportRow> rows, ImportReport report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<ImportRow> accepted = new ArrayList<>(rows.size());
+        try {
+            int[] counts = transactionTemplate.execute(status -> writeRows(rows, accepted, report));
+            report.updated += counts[0];
+            report.inserted += counts[1];
+        } catch (RuntimeException e) {
+            logger.warn("Product import chunk failed: {}", e.getMessage());
+            for (ImportRow row : accepted) {
+                report.addError(row.line, "Database error: " + rootMessage(e));
+            }
+        }
+    }
+
+    private int[] writeRows(List<ImportRow> rows, List<ImportRow> accepted, ImportReport report) {
+        resolveExistingProducts(rows, accepted, report);
+
+        List<ImportRow> updates = new ArrayList<>();
+        List<ImportRow> inserts = new ArrayList<>();
+        for (ImportRow row : accepted) {
+            (row.productId != null ? updates : inserts).add(row);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PRODUCT_SQL, updates, updates.size(), (ps, row) -> {
+                ps.setString(1, row.name);
+                ps.setString(2, row.nameAr);
+                ps.setString(3, row.description);
+                ps.setString(4, row.descriptionFr);
+                ps.setString(5, row.descriptionAr);
+                ps.setBigDecimal(6, row.price);
+                setBoolean(ps, 7, row.available);
+                setBoolean(ps, 8, row.featured);
+                ps.setString(9, row.status != null ? row.status.name() : null);
+                ps.setLong(10, row.categoryId);
+                ps.setString(11, row.effectiveImageUrl());
+                ps.setTimestamp(12, now);
+                ps.setLong(13, row.productId);
+            });
+        }
+        if (!inserts.isEmpty()) {
+            insertProducts(inserts, now);
+        }
+
+        List<Object[]> sizePrices = new ArrayList<>();
+        List<Long> imageProducts = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        for (ImportRow row : accepted) {
+            row.sizePrices.forEach((size, price) -> sizePrices.add(new Object[]{row.productId, size.name(), price}));
+            if (row.imageUrls != null) {
+                imageProducts.add(row.productId);
+                for (int i = 0; i < row.imageUrls.size(); i++) {
+                    images.add(new Object[]{row.productId, row.imageUrls.get(i), i, i == 0, now});
+                }
+            }
+        }
+        if (!sizePrices.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SIZE_PRICE_SQL, sizePrices);
+        }
+        if (!imageProducts.isEmpty()) {
+            namedJdbcTemplate.update("DELETE FROM product_images WHERE product_id IN (:ids)",
+                    new MapSqlParameterSource("ids", imageProducts));
+            if (!images.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_IMAGE_SQL, images);
+            }
+        }
+        return new int[]{updates.size(), inserts.size()};
+    }
+
+    /**
+     * Fill productId from the id column or a name match; rows that cannot be used are reported
+     */
+    private void resolveExistingProducts(List<ImportRow> rows, List<ImportRow> accepted, ImportReport report) {
+        Set<Long> requestedIds = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.productId != null) {
+                requestedIds.add(row.productId);
+            } else {
+                names.add(row.name);
+            }
+        }
+
+        Set<Long> existingIds = new HashSet<>();
+        if (!requestedIds.isEmpty()) {
+            existingIds.addAll(namedJdbcTemplate.queryForList("SELECT id FROM products WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", requestedIds), Long.class));
+        }
+        // IN matches through the case- and accent-insensitive collation, so "huile d'olive" finds
+        // "Huile d'Olive": key the rows found by normalized name, not by their stored spelling
+        Map<String, Long> idsByName = new HashMap<>();
+        if (!names.isEmpty()) {
+            namedJdbcTemplate.query("SELECT id, name FROM products WHERE name IN (:names) ORDER BY id",
+                    new MapSqlParameterSource("names", names),
+                    rs -> { idsByName.putIfAbsent(TextNormalizer.normalize(rs.getString("name")), rs.getLong("id")); });
+        }
+
+        Set<Long> seenIds = new HashSet<>();
+        Set<String> seenNames = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.productId != null) {
+                if (!existingIds.contains(row.productId)) {
+                    report.addError(row.line, "Product not found: " + row.productId);
+                    continue;
+                }
+            } else {
+                String key = TextNormalizer.normalize(row.name);
+                if (!seenNames.add(key)) {
+                    report.addError(row.line, "Duplicate product name in the same batch: " + row.name);
+                    continue;
+                }
+                row.productId = idsByName.get(key);
+            }
+            if (row.productId != null && !seenIds.add(row.productId)) {
+                report.addError(row.line, "Product appears twice in the same batch: " + row.productId);
+                continue;
+            }
+            accepted.add(row);
+        }
+    }
+
+    /**
+     * Batched insert that reads back the IDENTITY keys so size prices and images can reference them
+     */
+    private void insertProducts(List<ImportRow> rows, Timestamp now) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_PRODUCT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (ImportRow row : rows) {
+                    ps.setString(1, row.name);
+                    ps.setString(2, row.nameAr);
+                    ps.setString(3, row.description);
+                    ps.setString(4, row.descriptionFr);
+                    ps.setString(5, row.descriptionAr);
+                    ps.setBigDecimal(6, row.price);
+                    ps.setBoolean(7, row.available == null || row.available);
+                    ps.setBoolean(8, row.featured != null && row.featured);
+                    ps.setString(9, (row.status != null ? row.status : ProductStatus.ACTIVE).name());
+                    ps.setLong(10, row.categoryId);
+                    ps.setString(11, row.effectiveImageUrl());
+                    ps.setTimestamp(12, now);
+                    ps.setTimestamp(13, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    Iterator<ImportRow> it = rows.iterator();
+                    while (keys.next() && it.hasNext()) {
+                        it.next().productId = keys.getLong(1);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void setBoolean(PreparedStatement ps, int index, Boolean value) throws java.sql.SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BOOLEAN);
+        } else {
+            ps.setBoolean(index, value);
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    /**
+     * One validated input row
+     */
+    private static final class ImportRow {
+        private final int line;
+        private Long productId;
+        private String name;
+        private String nameAr;
+        private String description;
+        private String descriptionFr;
+        private String descriptionAr;
+        private BigDecimal price;
+        private Long categoryId;
+        private Boolean available;
+        private Boolean featured;
+        private ProductStatus status;
+        private String imageUrl;
+        private List<String> imageUrls;
+        private final Map<ProductSize, BigDecimal> sizePrices = new EnumMap<>(ProductSize.class);
+
+        private ImportRow(int line) {
+            this.line = line;
+        }
+
+        static ImportRow fromCsv(int line, Map<String, String> values, Set<Long> categoryIds) {
+            ImportRow row = new ImportRow(line);
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                String value = blankToNull(entry.getValue());
+                if (value == null) {
+                    continue;
+                }
+                ProductSize size = sizeColumn(entry.getKey());
+                if (size != null) {
+                    row.sizePrices.put(size, parsePrice(value, entry.getKey()));
+                } else {
+                    row.set(entry.getKey(), value);
+                }
+            }
+            return row.validate(categoryIds);
+        }
+
+        static ImportRow fromJson(int line, JsonNode node, Set<Long> categoryIds) {
+            ImportRow row = new ImportRow(line);
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                if (value == null || value.isNull()) {
+                    continue;
+                }
+                if (field.getKey().equals("sizePrices") && value.isObject()) {
+                    value.fields().forEachRemaining(sp -> {
+                        ProductSize size = sizeColumn(sp.getKey());
+                        if (size == null) {
+                            throw new IllegalArgumentException("Unknown size: " + sp.getKey());
+                        }
+                        row.sizePrices.put(size, parsePrice(sp.getValue().asText(), sp.getKey()));
+                    });
+                } else if (field.getKey().equals("imageUrls") && value.isArray()) {
+                    List<String> urls = new ArrayList<>();
+                    value.forEach(url -> {
+                        if (!url.asText().isBlank()) {
+                            urls.add(url.asText().trim());
+                        }
+                    });
+                    row.imageUrls = urls;
+                } else {
+                    ProductSize size = sizeColumn(field.getKey());
+                    if (size != null) {
+                        row.sizePrices.put(size, parsePrice(value.asText(), field.getKey()));
+                    } else {
+                        row.set(field.getKey(), value.asText());
+                    }
+                }
+            }
+            return row.validate(categoryIds);
+        }
+
+        private void set(String column, String value) {
+            switch (column) {
+                case "id": productId = parseLong(value, column); break;
+                case "name": name = value.trim(); break;
+                case "nameAr": nameAr = value.trim(); break;
+                case "description": description = value; break;
+                case "descriptionFr": descriptionFr = value; break;
+                case "descriptionAr": descriptionAr = value; break;
+                case "price": price = parsePrice(value, column); break;
+                case "categoryId": categoryId = parseLong(value, column); break;
+                case "available": available = parseBoolean(value, column); break;
+                case "featured": featured = parseBoolean(value, column); break;
+                case "status": status = parseStatus(value); break;
+                case "imageUrl": imageUrl = value.trim(); break;
+                case "imageUrls": imageUrls = splitUrls(value); break;
+                default: break; // Unknown columns are ignored
+            }
+        }
+
+        private ImportRow validate(Set<Long> categoryIds) {
+            if (name == null) {
+                throw new IllegalArgumentException("name is required");
+            }
+            if (nameAr == null) {
+                throw new IllegalArgumentException("nameAr is required");
+            }
+            if (price == null) {
+                throw new IllegalArgumentException("price is required");
+            }
+            if (categoryId == null) {
+                throw new IllegalArgumentException("categoryId is required");
+            }
+            if (!categoryIds.contains(categoryId)) {
+                throw new IllegalArgumentException("Category not found: " + categoryId);
+            }
+            return this;
+        }
+
+        private String effectiveImageUrl() {
+            if (imageUrl != null) {
+                return imageUrl;
+            }
+            return imageUrls != null && !imageUrls.isEmpty() ? imageUrls.get(0) : null;
+        }
+
+        private static ProductSize sizeColumn(String column) {
+            for (ProductSize size : ProductSize.values()) {
+                if (size.name().equalsIgnoreCase(column) || size.getCode().equalsIgnoreCase(column)) {
+                    return size;
+                }
+            }
+            return null;
+        }
+
+        private static BigDecimal parsePrice(String value, String column) {
+            try {
+                BigDecimal price = new BigDecimal(value.trim().replace(',', '.'));
+                if (price.signum() <= 0) {
+                    throw new IllegalArgumentException(column + " must be greater than 0");
+                }
+                return price;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        private static Long parseLong(String value, String column) {
+            try {
+                return Long.valueOf(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        private static Boolean parseBoolean(String value, String column) {
+            switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "true": case "1": case "yes": case "oui":
+                    return true;
+                case "false": case "0": case "no": case "non":
+                    return false;
+                default:
+                    throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        private static ProductStatus parseStatus(String value) {
+            try {
+                return ProductStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid status: " + value);
+            }
+        }
+
+        private static List<String> splitUrls(String value) {
+            List<String> urls = new ArrayList<>();
+            for (String url : value.split("\\|")) {
+                if (!url.isBlank()) {
+                    urls.add(url.trim());
+                }
+            }
+            return urls;
+        }
+
+        private static String blankToNull(String value) {
+            return value == null || value.isBlank() ? null : value;
+        }
+    }
+
+    /**
+     * Minimal streaming RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks
+     */
+    private static final class CsvReader {
+        private final Reader reader;
+        private int line = 1;
+        private int recordLine;
+        private boolean first = true;
+
+        private CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        int getRecordLine() {
+            return recordLine;
+        }
+
+        List<String> next() throws IOException {
+            int c = reader.read();
+            if (first) {
+                first = false;
+                if (c == '\uFEFF') {
+                    c = reader.read();
+                }
+            }
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                    }
+                    if (c == '"') {
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = peek;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r') {
+                    // Swallowed; \n ends the record
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+
+    // DTO classes for the import report
+    public static class ImportReport {
+        private int processed;
+        private int inserted;
+        private int updated;
+        private int failed;
+        private boolean errorsTruncated;
+        private boolean aborted;
+        private String abortReason;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void abort(String reason) {
+            aborted = true;
+            abortReason = reason;
+        }
+
+        void addError(int line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        public int getProcessed() { return processed; }
+        public int getInserted() { return inserted; }
+        public int getUpdated() { return updated; }
+        public int getFailed() { return failed; }
+        public boolean isErrorsTruncated() { return errorsTruncated; }
+        public boolean isAborted() { return aborted; }
+        public String getAbortReason() { return abortReason; }
+        public List<RowError> getErrors() { return errors; }
+    }
+
+    public static class RowError {
+        private final int line;
+        private final String message;
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() { return line; }
+        public String getMessage() { return message; }
+    }
+}
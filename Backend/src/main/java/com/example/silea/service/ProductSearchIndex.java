@@ -0,0 +1,209 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Product;
+import com.example.silea.event.CatalogChangedEvent;
+import com.example.silea.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product names and descriptions (French, English and Arabic).
+ * Built at startup and kept up to date from catalog change events; queries never touch the database.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    // A query token that is only a prefix of the indexed term scores less than an exact match
+    private static final float PREFIX_FACTOR = 0.6f;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (product id -> weight)
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    // product id -> indexed terms, used to remove a product before re-indexing it
+    private final Map<Long, Map<String, Float>> productTerms = new HashMap<>();
+    private volatile boolean ready = false;
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Whether the initial build has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Return ids of products matching every query token, best matches first
+     */
+    public List<Long> search(String query) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = new HashMap<>();
+                NavigableMap<String, Map<Long, Float>> matches = postings.subMap(token, true, token + Character.MAX_VALUE, false);
+                for (Map.Entry<String, Map<Long, Float>> match : matches.entrySet()) {
+                    float factor = match.getKey().length() == token.length() ? 1.0f : PREFIX_FACTOR;
+                    for (Map.Entry<Long, Float> posting : match.getValue().entrySet()) {
+                        tokenScores.merge(posting.getKey(), posting.getValue() * factor, Math::max);
+                    }
+                }
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Float> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * Rebuild the whole index from the database
+     */
+    public void rebuild() {
+        Map<Long, Map<String, Float>> documents = readOnlyTransaction.execute(status -> {
+            Map<Long, Map<String, Float>> loaded = new HashMap<>();
+            for (Product product : productRepository.findAll()) {
+                loaded.put(product.getId(), terms(product));
+            }
+            return loaded;
+        });
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            productTerms.clear();
+            documents.forEach(this::addDocument);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product search index built: {} products, {} terms", documents.size(), postings.size());
+    }
+
+    /**
+     * Re-index a single product, removing it if it no longer exists
+     */
+    public void reindex(Long productId) {
+        Map<String, Float> terms = readOnlyTransaction.execute(status ->
+                productRepository.findById(productId).map(ProductSearchIndex::terms).orElse(null));
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+            if (terms != null) {
+                addDocument(productId, terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        try {
+            if (event.isSingleProduct()) {
+                reindex(event.getProductId());
+            } else {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update product search index: {}", e.getMessage());
+        }
+    }
+
+    private void addDocument(Long productId, Map<String, Float> terms) {
+        productTerms.put(productId, terms);
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(productId, weight));
+    }
+
+    private void removeDocument(Long productId) {
+        Map<String, Float> terms = productTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Float> products = postings.get(term);
+            if (products != null) {
+                products.remove(productId);
+                if (products.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Term weights for a product: names weigh more than descriptions, repeated terms add up
+     */
+    private static Map<String, Float> terms(Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, product.getName(), NAME_WEIGHT);
+        addTerms(terms, product.getNameAr(), NAME_WEIGHT);
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        addTerms(terms, product.getDescriptionFr(), DESCRIPTION_WEIGHT);
+        addTerms(terms, product.getDescriptionAr(), DESCRIPTION_WEIGHT);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : TextNormalizer.tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+}
@@ -1,28 +1,56 @@
 package com.example.silea.service;
 
+import com.example.silea.dto.CursorPage;
+import com.example.silea.dto.KeysetCursor;
+import com.example.silea.dto.ProductListItem;
 import com.example.silea.entity.Product;
 import com.example.silea.entity.Category;
+import com.example.silea.enums.ProductSize;
 import com.example.silea.enums.ProductStatus;
+import com.example.silea.event.CatalogChangedEvent;
 import com.example.silea.repository.ProductRepository;
+import com.example.silea.repository.ProductSizePriceRepository;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductSizePriceRepository sizePriceRepository;
     private final CategoryService categoryService;
+    private final CatalogCacheService catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndex searchIndex;
 
-    public ProductService(ProductRepository productRepository, CategoryService categoryService) {
+    public ProductService(ProductRepository productRepository, ProductSizePriceRepository sizePriceRepository,
+                         CategoryService categoryService,
+                         CatalogCacheService catalogCache, ApplicationEventPublisher eventPublisher,
+                         ProductSearchIndex searchIndex) {
         this.productRepository = productRepository;
+        this.sizePriceRepository = sizePriceRepository;
         this.categoryService = categoryService;
+        this.catalogCache = catalogCache;
+        this.eventPublisher = eventPublisher;
+        this.searchIndex = searchIndex;
     }
 
     /**
@@ -50,7 +78,9 @@ public class ProductService {
             product.setCategory(category);
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        markProductChanged(saved.getId());
+        return saved;
     }
 
     /**
@@ -71,7 +101,9 @@ public class ProductService {
         product.setAvailable(available);
         product.setImageUrl(imageUrl);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        markProductChanged(productId);
+        return saved;
     }
 
     /**
@@ -82,14 +114,25 @@ public class ProductService {
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
 
         product.setStatus(status);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        markProductChanged(productId);
+        return saved;
     }
 
     /**
      * Save product
      */
     public Product save(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        markProductChanged(saved.getId());
+        return saved;
+    }
+
+    /**
+     * Signal a product change made outside this service (images, size prices)
+     */
+    public void markProductChanged(Long productId) {
+        eventPublisher.publishEvent(new CatalogChangedEvent(productId));
     }
 
     /**
@@ -99,39 +142,135 @@ public class ProductService {
         return productRepository.findById(id);
     }
 
+    /**
+     * Find product by ID for public catalog reads (served from the catalog cache)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<Product> getCatalogProduct(Long id) {
+        return Optional.ofNullable(catalogCache.get("product:" + id,
+                () -> productRepository.findWithDetailsById(id).map(ProductService::initialized).orElse(null)));
+    }
+
+    /**
+     * Resolve a batch of products (with category and size prices) by id: cached catalog
+     * entries first, the rest in a single query. Unknown ids are absent from the map.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<Long, Product> findAllByIds(Collection<Long> ids) {
+        Map<Long, Product> products = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null || products.containsKey(id)) {
+                continue;
+            }
+            Product cached = catalogCache.peek("product:" + id);
+            if (cached != null) {
+                products.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepository.findWithDetailsByIdIn(missing)) {
+                products.put(product.getId(), product);
+            }
+        }
+        return products;
+    }
+
     /**
      * Get all active products
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Product> getActiveProducts() {
-        return productRepository.findByStatus(ProductStatus.ACTIVE);
+        return catalogCache.get("products:active",
+                () -> initialized(productRepository.findByStatus(ProductStatus.ACTIVE)));
     }
 
     /**
-     * Search products
+     * Search products, best match first
      */
+    @Transactional(readOnly = true)
     public List<Product> searchProducts(String searchTerm) {
-        return productRepository.searchProducts(searchTerm);
+        if (!searchIndex.isReady()) {
+            // Index is still being built at startup
+            return productRepository.searchProducts(searchTerm);
+        }
+        List<Long> ranked = searchIndex.search(searchTerm);
+        // One query for the hits not in the catalog cache, then back into ranking order
+        Map<Long, Product> found = findAllByIds(ranked);
+        List<Product> products = new ArrayList<>(found.size());
+        for (Long id : ranked) {
+            Product product = found.get(id);
+            if (product != null) {
+                // Images of freshly loaded hits come in one batch
+                products.add(initialized(product));
+            }
+        }
+        return products;
     }
 
     /**
      * Get products by category (only ACTIVE products for public use)
      */
-    public List<Product> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryIdAndStatus(categoryId, ProductStatus.ACTIVE);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ProductListItem> getProductsByCategory(Long categoryId) {
+        return catalogCache.get("products:category:" + categoryId,
+                () -> withSizePrices(productRepository.findListItemsByCategoryIdAndStatus(categoryId, ProductStatus.ACTIVE)));
     }
 
     /**
      * Get homepage featured products
      */
-    public List<Product> getHomepageProducts() {
-        return productRepository.findHomepageProducts();
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ProductListItem> getHomepageProducts() {
+        return catalogCache.get("products:featured",
+                () -> withSizePrices(productRepository.findHomepageListItems()));
+    }
+
+    /**
+     * Listing items for every product regardless of status (used to build in-memory indexes)
+     */
+    @Transactional(readOnly = true)
+    public List<ProductListItem> getAllListItems() {
+        return withSizePrices(productRepository.findAllListItems());
+    }
+
+    /**
+     * Listing item for a single product regardless of status
+     */
+    @Transactional(readOnly = true)
+    public Optional<ProductListItem> findListItem(Long productId) {
+        return productRepository.findListItemById(productId)
+                .map(item -> withSizePrices(new ArrayList<>(List.of(item))).get(0));
     }
 
     /**
      * Get products with pagination
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<Product> getProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+        return catalogCache.get("products:page:" + pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort(),
+                () -> {
+                    Page<Product> page = productRepository.findAll(pageable);
+                    initialized(page.getContent());
+                    return page;
+                });
+    }
+
+    /**
+     * Get products after a keyset cursor (newest first); a null or empty cursor starts from the newest product
+     */
+    public CursorPage<Product> getProductsPage(String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Product> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = productRepository.findLatest(limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = productRepository.findLatestBefore(position.getTimestamp(), position.getId(), limit);
+        }
+        return CursorPage.of(rows, size, p -> new KeysetCursor(p.getCreatedAt(), p.getId()));
     }
 
     /**
@@ -143,6 +282,7 @@ public class ProductService {
 
         product.setStatus(ProductStatus.INACTIVE);
         productRepository.save(product);
+        markProductChanged(productId);
     }
 
     /**
@@ -171,7 +311,9 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
         product.setFeatured(featured);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        markProductChanged(productId);
+        return saved;
     }
 
     /**
@@ -181,7 +323,9 @@ public class ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
         product.setAvailable(available);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        markProductChanged(productId);
+        return saved;
     }
 
     /**
@@ -194,6 +338,37 @@ public class ProductService {
                product.get().getAvailable();
     }
 
+    /**
+     * Initialize the lazy associations so the product can be cached and served detached
+     */
+    private static Product initialized(Product product) {
+        Hibernate.initialize(product.getCategory());
+        Hibernate.initialize(product.getSizePrices());
+        Hibernate.initialize(product.getImages());
+        return product;
+    }
+
+    private static List<Product> initialized(List<Product> products) {
+        products.forEach(ProductService::initialized);
+        return products;
+    }
+
+    /**
+     * Attach size prices to listing items with a single query
+     */
+    private List<ProductListItem> withSizePrices(List<ProductListItem> items) {
+        if (items.isEmpty()) {
+            return items;
+        }
+        Map<Long, ProductListItem> byId = new HashMap<>();
+        items.forEach(item -> byId.put(item.getId(), item));
+        for (Object[] row : sizePriceRepository.findPricesByProductIds(byId.keySet())) {
+            byId.get((Long) row[0]).getSizePrices().add(new ProductListItem.SizePrice((ProductSize) row[1], (BigDecimal) row[2]));
+        }
+        items.forEach(item -> item.getSizePrices().sort(Comparator.comparing(ProductListItem.SizePrice::getSize)));
+        return items;
+    }
+
     // DTO class for statistics
     public static class ProductStatistics {
         private final long totalProducts;
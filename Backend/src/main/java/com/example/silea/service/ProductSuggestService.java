@@ -0,0 +1,275 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Category;
+import com.example.silea.entity.Product;
+import com.example.silea.enums.ProductStatus;
+import com.example.silea.event.CatalogChangedEvent;
+import com.example.silea.event.OrderChangedEvent;
+import com.example.silea.repository.CategoryRepository;
+import com.example.silea.repository.OrderItemRepository;
+import com.example.silea.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typeahead suggestions over product and category names (French and Arabic).
+ * Keys are normalized names and every word suffix of them, kept in a sorted map so a
+ * prefix lookup is a range scan. Suggestions are ranked by units sold: per product, and per
+ * category as the total of its products, both swapped in whole whenever they are recomputed.
+ * New orders mark the sales stale; they are re-read on the next refresh tick, so a burst of
+ * checkouts costs one query.
+ */
+@Service
+public class ProductSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestService.class);
+
+    public static final String TYPE_PRODUCT = "product";
+    public static final String TYPE_CATEGORY = "category";
+
+    // Separates the searchable part of a key from the suggestion identity so keys stay unique
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ConcurrentSkipListMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, List<String>> productKeys = new ConcurrentHashMap<>();
+    private final Map<Long, Long> productCategory = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> productSales = Map.of();
+    private volatile Map<Long, Long> categorySales = Map.of();
+    private final AtomicBoolean salesStale = new AtomicBoolean();
+
+    public ProductSuggestService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                                 OrderItemRepository orderItemRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Return up to limit suggestions whose name (or a word in it) starts with the prefix
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = TextNormalizer.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Same suggestion can match through several keys (name and a word inside it)
+        Map<String, Suggestion> matches = new LinkedHashMap<>();
+        for (Suggestion suggestion : entries.subMap(normalized, normalized + Character.MAX_VALUE).values()) {
+            matches.putIfAbsent(suggestion.getType() + ':' + suggestion.getId() + ':' + suggestion.getText(), suggestion);
+        }
+
+        Map<Suggestion, Long> scores = new IdentityHashMap<>();
+        matches.values().forEach(s -> scores.put(s, popularity(s)));
+        List<Suggestion> ranked = new ArrayList<>(matches.values());
+        ranked.sort(Comparator.comparingLong((Suggestion s) -> scores.get(s)).reversed()
+                .thenComparingInt(s -> s.getText().length())
+                .thenComparing(Suggestion::getText));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    /**
+     * Rebuild all suggestions and sales counts from the database
+     */
+    public void rebuild() {
+        salesStale.set(false);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            Map<Long, Long> sales = loadSales();
+            List<Product> products = productRepository.findByStatus(ProductStatus.ACTIVE);
+            List<Category> categories = categoryRepository.findByIsActiveTrue();
+
+            synchronized (this) {
+                entries.clear();
+                productKeys.clear();
+                productCategory.clear();
+                productSales = sales;
+                products.forEach(this::addProduct);
+                categories.forEach(this::addCategory);
+                sumCategorySales();
+            }
+            logger.info("Suggestion index built: {} products, {} categories", products.size(), categories.size());
+        });
+    }
+
+    /**
+     * Replace the suggestions of a single product
+     */
+    public void refreshProduct(Long productId) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            Product product = productRepository.findById(productId).orElse(null);
+            synchronized (this) {
+                List<String> keys = productKeys.remove(productId);
+                if (keys != null) {
+                    keys.forEach(entries::remove);
+                }
+                Long previousCategory = productCategory.remove(productId);
+                if (product != null && product.getStatus() == ProductStatus.ACTIVE) {
+                    addProduct(product);
+                }
+                if (!Objects.equals(previousCategory, productCategory.get(productId))) {
+                    sumCategorySales();
+                }
+            }
+        });
+    }
+
+    /**
+     * Re-read the units sold per product and the category totals
+     */
+    public void refreshSales() {
+        Map<Long, Long> sales = readOnlyTransaction.execute(status -> loadSales());
+        synchronized (this) {
+            productSales = sales;
+            sumCategorySales();
+        }
+    }
+
+    /**
+     * Re-read the sales when orders were placed since the last refresh
+     */
+    @Scheduled(fixedDelayString = "${catalog.suggest.sales-refresh-ms:60000}")
+    public void refreshSalesIfStale() {
+        if (!salesStale.getAndSet(false)) {
+            return;
+        }
+        try {
+            refreshSales();
+        } catch (Exception e) {
+            salesStale.set(true);
+            logger.warn("Failed to refresh suggestion sales: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        try {
+            if (event.isSingleProduct()) {
+                refreshProduct(event.getProductId());
+            } else {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to update suggestion index: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        // Sales count the items of every order, so only a new order changes them
+        if (event.isCreated()) {
+            salesStale.set(true);
+        }
+    }
+
+    private long popularity(Suggestion suggestion) {
+        Map<Long, Long> sales = TYPE_PRODUCT.equals(suggestion.getType()) ? productSales : categorySales;
+        return sales.getOrDefault(suggestion.getId(), 0L);
+    }
+
+    private Map<Long, Long> loadSales() {
+        Map<Long, Long> sales = new HashMap<>();
+        for (Object[] row : orderItemRepository.findBestSellingProducts()) {
+            sales.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        return sales;
+    }
+
+    /**
+     * Total the sales of the indexed products per category; callers hold the monitor
+     */
+    private void sumCategorySales() {
+        Map<Long, Long> sales = productSales;
+        Map<Long, Long> totals = new HashMap<>();
+        productCategory.forEach((productId, categoryId) ->
+                totals.merge(categoryId, sales.getOrDefault(productId, 0L), Long::sum));
+        categorySales = totals;
+    }
+
+    private void addProduct(Product product) {
+        List<String> keys = new ArrayList<>();
+        addName(keys, product.getName(), TYPE_PRODUCT, product.getId());
+        addName(keys, product.getNameAr(), TYPE_PRODUCT, product.getId());
+        productKeys.put(product.getId(), keys);
+        if (product.getCategory() != null) {
+            productCategory.put(product.getId(), product.getCategory().getId());
+        }
+    }
+
+    private void addCategory(Category category) {
+        List<String> keys = new ArrayList<>();
+        addName(keys, category.getName(), TYPE_CATEGORY, category.getId());
+        addName(keys, category.getNameAr(), TYPE_CATEGORY, category.getId());
+    }
+
+    /**
+     * Index the full normalized name and every word suffix of it, so "olive" finds "Huile d'olive"
+     */
+    private void addName(List<String> keys, String name, String type, Long id) {
+        String normalized = TextNormalizer.normalize(name);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Suggestion suggestion = new Suggestion(name.trim(), type, id);
+        String identity = KEY_SEPARATOR + type + KEY_SEPARATOR + id + KEY_SEPARATOR + name.trim();
+        int start = 0;
+        while (start >= 0) {
+            String key = normalized.substring(start) + identity;
+            entries.put(key, suggestion);
+            keys.add(key);
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+    }
+
+    // DTO class for suggestions
+    public static class Suggestion {
+        private final String text;
+        private final String type;
+        private final Long id;
+
+        public Suggestion(String text, String type, Long id) {
+            this.text = text;
+            this.type = type;
+            this.id = id;
+        }
+
+        public String getText() { return text; }
+        public String getType() { return type; }
+        public Long getId() { return id; }
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Category;
+import com.example.silea.enums.ShippingClass;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shipping zones, city aliases, category classes and free-shipping thresholds, loaded from
+ * {@code shipping.rules-location} and compiled into hash lookups keyed by normalized text.
+ * A reload swaps the whole compiled rule set at once, so a quote never mixes two versions.
+ */
+@Service
+public class ShippingRulesEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShippingRulesEngine.class);
+
+    // Distinct category names seen are few; the bound only guards against unbounded growth
+    private static final int MAX_CLASSIFIED_NAMES = 1024;
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String location;
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Rules rules;
+
+    public ShippingRulesEngine(ResourceLoader resourceLoader, ObjectMapper objectMapper,
+                               @Value("${shipping.rules-location:classpath:shipping-rules.json}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.location = location;
+        // Invalid rules fail startup rather than the first checkout
+        this.rules = load();
+    }
+
+    /**
+     * Re-read the rules file and swap it in; the current rules stay active if it is invalid
+     */
+    public synchronized Map<String, Object> reload() {
+        Rules loaded = load();
+        this.rules = loaded;
+        return describe(loaded);
+    }
+
+    /**
+     * Summary of the active rules
+     */
+    public Map<String, Object> describe() {
+        return describe(rules);
+    }
+
+    /**
+     * Shipping class of a category, or null when it belongs to none
+     */
+    public ShippingClass classify(Category category) {
+        return category != null ? classifyName(category.getName()) : null;
+    }
+
+    /**
+     * Shipping class of a category by name, or null when it belongs to none
+     */
+    public ShippingClass classifyName(String categoryName) {
+        if (categoryName == null) {
+            return null;
+        }
+        return rules.classify(categoryName);
+    }
+
+    /**
+     * Quote shipping for a cart once its subtotal, classes and oil volume are known
+     *
+     * @param city delivery city, or null when unknown (default rate, no delivery check)
+     * @param classes classes present in the cart, as an EnumSet so priority order is kept
+     */
+    public Quote quote(String city, long subtotalCentimes, Set<ShippingClass> classes, double oilLiters) {
+        Rules current = rules;
+        String normalizedCity = TextNormalizer.normalize(city);
+        Zone zone = current.zonesByAlias.get(normalizedCity);
+
+        if (!normalizedCity.isEmpty()) {
+            for (ShippingClass shippingClass : classes) {
+                if (current.restrictedClasses.contains(shippingClass)
+                        && (zone == null || !zone.rates.containsKey(shippingClass))) {
+                    return new Quote(null, false, zone);
+                }
+            }
+        }
+
+        boolean freeShipping = subtotalCentimes >= current.freeShippingSubtotalCentimes
+                || (classes.contains(ShippingClass.OIL) && oilLiters >= current.freeShippingOilLiters);
+        if (freeShipping) {
+            return new Quote(BigDecimal.ZERO, true, zone);
+        }
+        if (normalizedCity.isEmpty() || zone == null) {
+            return new Quote(current.defaultRate, false, zone);
+        }
+        // EnumSet iterates in declaration order, so the first class present is the dominant one
+        BigDecimal rate = classes.isEmpty() ? null : zone.rates.get(classes.iterator().next());
+        if (rate != null) {
+            return new Quote(rate, false, zone);
+        }
+        return new Quote(zone.defaultRate != null ? zone.defaultRate : current.defaultRate, false, zone);
+    }
+
+    /**
+     * Rate for a city regardless of cart content
+     */
+    public BigDecimal cityRate(String city) {
+        Rules current = rules;
+        Zone zone = current.zonesByAlias.get(TextNormalizer.normalize(city));
+        return zone != null && zone.defaultRate != null ? zone.defaultRate : current.defaultRate;
+    }
+
+    /**
+     * Changes on every (re)load, so anything priced under older rules can be detected
+     */
+    public long getRulesVersion() {
+        return rules.version;
+    }
+
+    public BigDecimal getFreeShippingThreshold() {
+        return rules.freeShippingSubtotal;
+    }
+
+    private Rules load() {
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            Rules loaded = compile(objectMapper.readTree(in));
+            logger.info("Shipping rules loaded from {}: {} zones, {} city aliases",
+                    location, loaded.zones.size(), loaded.zonesByAlias.size());
+            return loaded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read shipping rules from " + location, e);
+        }
+    }
+
+    private Rules compile(JsonNode root) {
+        BigDecimal defaultRate = rate(root, "defaultRate");
+        if (defaultRate == null) {
+            throw new IllegalArgumentException("Shipping rules must define defaultRate");
+        }
+        JsonNode free = root.path("freeShipping");
+        BigDecimal freeSubtotal = rate(free, "subtotal");
+        if (freeSubtotal == null) {
+            throw new IllegalArgumentException("Shipping rules must define freeShipping.subtotal");
+        }
+        double freeOilLiters = free.path("oilLiters").asDouble(Double.MAX_VALUE);
+
+        Map<ShippingClass, List<String>> keywords = new EnumMap<>(ShippingClass.class);
+        Set<ShippingClass> restricted = Collections.newSetFromMap(new EnumMap<>(ShippingClass.class));
+        Iterator<Map.Entry<String, JsonNode>> classes = root.path("classes").fields();
+        while (classes.hasNext()) {
+            Map.Entry<String, JsonNode> entry = classes.next();
+            ShippingClass shippingClass = shippingClass(entry.getKey());
+            List<String> classKeywords = new ArrayList<>();
+            for (JsonNode keyword : entry.getValue().path("keywords")) {
+                String normalized = TextNormalizer.normalize(keyword.asText());
+                if (!normalized.isEmpty()) {
+                    classKeywords.add(normalized);
+                }
+            }
+            keywords.put(shippingClass, classKeywords);
+            if (entry.getValue().path("restrictedToZones").asBoolean(false)) {
+                restricted.add(shippingClass);
+            }
+        }
+
+        List<Zone> zones = new ArrayList<>();
+        Map<String, Zone> zonesByAlias = new HashMap<>();
+        for (JsonNode zoneNode : root.path("zones")) {
+            String name = zoneNode.path("name").asText();
+            if (name.isBlank()) {
+                throw new IllegalArgumentException("Shipping zone without a name");
+            }
+            Map<ShippingClass, BigDecimal> rates = new EnumMap<>(ShippingClass.class);
+            Iterator<Map.Entry<String, JsonNode>> zoneRates = zoneNode.path("rates").fields();
+            while (zoneRates.hasNext()) {
+                Map.Entry<String, JsonNode> entry = zoneRates.next();
+                rates.put(shippingClass(entry.getKey()), nonNegative(entry.getValue().decimalValue(), name));
+            }
+            Zone zone = new Zone(name, rate(zoneNode, "defaultRate"), rates);
+            zones.add(zone);
+
+            List<String> aliases = new ArrayList<>();
+            aliases.add(name);
+            zoneNode.path("aliases").forEach(alias -> aliases.add(alias.asText()));
+            for (String alias : aliases) {
+                String normalized = TextNormalizer.normalize(alias);
+                Zone previous = zonesByAlias.put(normalized, zone);
+                if (previous != null && previous != zone) {
+                    throw new IllegalArgumentException("City alias '" + alias + "' belongs to both "
+                            + previous.name + " and " + name);
+                }
+            }
+        }
+
+        return new Rules(versions.incrementAndGet(), defaultRate, freeSubtotal, freeOilLiters, keywords, restricted, zones, zonesByAlias);
+    }
+
+    private static ShippingClass shippingClass(String name) {
+        try {
+            return ShippingClass.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown shipping class: " + name);
+        }
+    }
+
+    private static BigDecimal rate(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : nonNegative(value.decimalValue(), field);
+    }
+
+    private static BigDecimal nonNegative(BigDecimal rate, String context) {
+        if (rate.signum() < 0) {
+            throw new IllegalArgumentException("Negative shipping rate in " + context);
+        }
+        return rate;
+    }
+
+    private Map<String, Object> describe(Rules current) {
+        List<Map<String, Object>> zones = new ArrayList<>();
+        for (Zone zone : current.zones) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", zone.name);
+            entry.put("defaultRate", zone.defaultRate);
+            entry.put("rates", zone.rates);
+            zones.add(entry);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("location", location);
+        summary.put("loadedAt", current.loadedAt);
+        summary.put("defaultRate", current.defaultRate);
+        summary.put("freeShippingSubtotal", current.freeShippingSubtotal);
+        summary.put("freeShippingOilLiters", current.freeShippingOilLiters);
+        summary.put("restrictedClasses", current.restrictedClasses);
+        summary.put("cityAliases", current.zonesByAlias.size());
+        summary.put("zones", zones);
+        return summary;
+    }
+
+    /**
+     * One compiled, immutable version of the rules
+     */
+    private static final class Rules {
+        private final long version;
+        private final BigDecimal defaultRate;
+        private final BigDecimal freeShippingSubtotal;
+        private final long freeShippingSubtotalCentimes;
+        private final double freeShippingOilLiters;
+        private final Map<ShippingClass, List<String>> keywords;
+        private final Set<ShippingClass> restrictedClasses;
+        private final List<Zone> zones;
+        private final Map<String, Zone> zonesByAlias;
+        private final LocalDateTime loadedAt = LocalDateTime.now();
+        // category name -> class, filled lazily and dropped with the rules on reload
+        private final Map<String, ShippingClass> classified = new ConcurrentHashMap<>();
+        private final Set<String> unclassified = ConcurrentHashMap.newKeySet();
+
+        private Rules(long version, BigDecimal defaultRate, BigDecimal freeShippingSubtotal, double freeShippingOilLiters,
+                      Map<ShippingClass, List<String>> keywords, Set<ShippingClass> restrictedClasses,
+                      List<Zone> zones, Map<String, Zone> zonesByAlias) {
+            this.version = version;
+            this.defaultRate = defaultRate;
+            this.freeShippingSubtotal = freeShippingSubtotal;
+            this.freeShippingSubtotalCentimes = Money.toCentimes(freeShippingSubtotal);
+            this.freeShippingOilLiters = freeShippingOilLiters;
+            this.keywords = keywords;
+            this.restrictedClasses = restrictedClasses;
+            this.zones = zones;
+            this.zonesByAlias = zonesByAlias;
+        }
+
+        private ShippingClass classify(String categoryName) {
+            ShippingClass cached = classified.get(categoryName);
+            if (cached != null || unclassified.contains(categoryName)) {
+                return cached;
+            }
+            String normalized = TextNormalizer.normalize(categoryName);
+            ShippingClass match = null;
+            for (Map.Entry<ShippingClass, List<String>> entry : keywords.entrySet()) {
+                for (String keyword : entry.getValue()) {
+                    if (normalized.contains(keyword)) {
+                        match = entry.getKey();
+                        break;
+                    }
+                }
+                if (match != null) {
+                    break;
+                }
+            }
+            if (classified.size() + unclassified.size() < MAX_CLASSIFIED_NAMES) {
+                if (match != null) {
+                    classified.put(categoryName, match);
+                } else {
+                    unclassified.add(categoryName);
+                }
+            }
+            return match;
+        }
+    }
+
+    private static final class Zone {
+        private final String name;
+        private final BigDecimal defaultRate;
+        private final Map<ShippingClass, BigDecimal> rates;
+
+        private Zone(String name, BigDecimal defaultRate, Map<ShippingClass, BigDecimal> rates) {
+            this.name = name;
+            this.defaultRate = defaultRate;
+            this.rates = rates;
+        }
+    }
+
+    /**
+     * Shipping for one cart: the cost (null when it cannot be delivered) and the matched zone name
+     */
+    public static class Quote {
+        private final BigDecimal shipping;
+        private final boolean freeShipping;
+        private final String zone;
+
+        Quote(BigDecimal shipping, boolean freeShipping, Zone zone) {
+            this.shipping = shipping;
+            this.freeShipping = freeShipping;
+            this.zone = zone != null ? zone.name : null;
+        }
+
+        public BigDecimal getShipping() { return shipping; }
+        public boolean isFreeShipping() { return freeShipping; }
+        public String getZone() { return zone; }
+        public boolean isAvailable() { return shipping != null; }
+    }
+}
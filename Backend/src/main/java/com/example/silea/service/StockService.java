@@ -0,0 +1,658 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.OrderItem;
+import com.example.silea.entity.ProductStock;
+import com.example.silea.enums.OrderStatus;
+import com.example.silea.enums.ProductSize;
+import com.example.silea.event.OrderChangedEvent;
+import com.example.silea.repository.ProductStockRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stock per (product, size) for limited batches. The product_stock row holds the units no
+ * instance has taken yet; each instance leases blocks of units from it (a row lock held for
+ * one short transaction per block) into a local pool of striped atomic counters, and checkouts
+ * only touch those counters. Units left in an idle pool, and units restocked by cancellations,
+ * are handed back to the row in batches. Setting stock retires the size's pool; units of a
+ * reservation released after that are dropped instead of landing in the new pool.
+ *
+ * Leases are taken by a background refill thread, started when a pool runs low, never by the
+ * checkout thread: a checkout already holds a pooled connection, so leasing there would need
+ * a second one and a burst on a hot size could exhaust the pool. A checkout that finds its
+ * pool short waits briefly for the refill in flight instead, holding no lock while it waits.
+ *
+ * Sizes without a stock row are not tracked and always reserve successfully; the set of
+ * tracked sizes is re-read every flush interval, so stock set on another instance applies
+ * here within seconds. Units leased by an instance that dies are lost to sale until stock is
+ * set again: it can undersell, never oversell.
+ */
+@Service
+public class StockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockService.class);
+
+    private static final String RETURN_SQL =
+            "UPDATE product_stock SET quantity = quantity + ?, updated_at = NOW() WHERE product_id = ? AND size = ?";
+    private static final String RESERVED_ITEMS_SQL =
+            "SELECT product_id, size, quantity FROM order_items WHERE order_id = ? AND stock_reserved = true FOR UPDATE";
+    private static final String CLEAR_RESERVED_SQL =
+            "UPDATE order_items SET stock_reserved = false WHERE order_id = ? AND stock_reserved = true";
+
+    // Pool generation of reserved lines of untracked sizes
+    private static final long UNTRACKED = 0;
+    // A checkout that finds its pool short waits for at most this many refills
+    private static final int MAX_REFILL_WAITS = 3;
+
+    private final ProductStockRepository stockRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final int leaseSize;
+    private final int stripeCount;
+    private final Duration reservationTtl;
+    private final long idleReturnMs;
+    private final long refillWaitMs;
+
+    // One pool per tracked size
+    private final Map<Sku, Pool> pools = new ConcurrentHashMap<>();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final AtomicLong poolGenerations = new AtomicLong();
+    private final Object syncLock = new Object();
+    private volatile boolean tracking = false;
+    private final ExecutorService refillExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "stock-refill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockService(ProductStockRepository stockRepository, JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${stock.lease-size:20}") int leaseSize,
+                        @Value("${stock.stripes:0}") int stripes,
+                        @Value("${stock.reservation-ttl-seconds:900}") long reservationTtlSeconds,
+                        @Value("${stock.idle-return-ms:30000}") long idleReturnMs,
+                        @Value("${stock.refill-wait-ms:1000}") long refillWaitMs) {
+        this.stockRepository = stockRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        // Leases commit on their own, outside the checkout transaction, so the row lock is brief
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.leaseSize = Math.max(1, leaseSize);
+        int wanted = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        // Power of two so a thread picks its stripe with a mask
+        this.stripeCount = Integer.highestOneBit(Math.max(1, wanted - 1) << 1);
+        this.reservationTtl = Duration.ofSeconds(reservationTtlSeconds);
+        this.idleReturnMs = idleReturnMs;
+        this.refillWaitMs = refillWaitMs;
+    }
+
+    /**
+     * Reserve the units of every item, all or nothing
+     *
+     * @throws IllegalArgumentException when a tracked size does not have enough units left
+     * @throws IllegalStateException when a refill of a tracked size did not complete in time
+     */
+    public Reservation reserve(List<OrderItem> items) {
+        if (!tracking) {
+            // First checkout after startup: one small read, on the caller's own connection
+            syncTracked();
+        }
+        List<ReservedLine> lines = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            Sku sku = new Sku(item.getProduct().getId(), item.getSize());
+            Pool pool = pools.get(sku);
+            Take result = pool != null ? pool.take(item.getQuantity()) : Take.UNTRACKED;
+            if (result == Take.INSUFFICIENT || result == Take.BUSY) {
+                lines.forEach(this::putBack);
+                String label = "'" + item.getProduct().getName() + "'"
+                        + (item.getSize() != null ? " (" + item.getSize().getDisplayName() + ")" : "");
+                if (result == Take.BUSY) {
+                    throw new IllegalStateException("Stock for " + label + " is being replenished, please try again");
+                }
+                throw new IllegalArgumentException("Insufficient stock for " + label);
+            }
+            lines.add(new ReservedLine(sku, item.getQuantity(), result == Take.TAKEN ? pool.generation : UNTRACKED));
+        }
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setStockReserved(lines.get(i).isCounted());
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), lines,
+                System.currentTimeMillis() + reservationTtl.toMillis());
+        reservations.put(reservation.getId(), reservation);
+        return reservation;
+    }
+
+    /**
+     * The reserved units are sold; returns false if the reservation had already expired
+     */
+    public boolean confirm(String reservationId) {
+        if (reservations.remove(reservationId) == null) {
+            logger.warn("Stock reservation {} confirmed after it expired or was released", reservationId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Give the reserved units back
+     */
+    public void release(String reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation != null) {
+            reservation.lines.forEach(this::putBack);
+        }
+    }
+
+    /**
+     * Confirm the reservation if the current transaction commits, release it otherwise
+     */
+    public void completeWithTransaction(Reservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirm(reservation.getId());
+            return;
+        }
+        // Settled by the transaction: maintain() must not expire it, however long the transaction runs
+        reservation.bound = true;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    confirm(reservation.getId());
+                } else {
+                    release(reservation.getId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Put the units of a cancelled order back on sale, whichever path cancelled it (admin,
+     * customer, Monday.com webhook, tracking update). Runs after the cancellation commits;
+     * the items' stock_reserved flags are cleared under a row lock before their units are
+     * given back, so a repeated event never returns them twice.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getStatus() != OrderStatus.CANCELLED || event.isCreated()
+                || event.getPreviousStatus() == OrderStatus.CANCELLED) {
+            return;
+        }
+        try {
+            restock(event.getOrderId());
+        } catch (Exception e) {
+            logger.error("Failed to restock cancelled order {}: {}", event.getOrderNumber(), e.getMessage());
+        }
+    }
+
+    private void restock(Long orderId) {
+        Map<Sku, Integer> lines = newTransaction.execute(status -> {
+            Map<Sku, Integer> reserved = new LinkedHashMap<>();
+            jdbcTemplate.query(RESERVED_ITEMS_SQL, rs -> {
+                reserved.merge(new Sku(rs.getLong(1), ProductSize.valueOf(rs.getString(2))), rs.getInt(3), Integer::sum);
+            }, orderId);
+            if (!reserved.isEmpty()) {
+                jdbcTemplate.update(CLEAR_RESERVED_SQL, orderId);
+            }
+            return reserved;
+        });
+        if (lines != null && !lines.isEmpty()) {
+            lines.forEach(this::returnSold);
+            logger.info("Returned the stock of {} line(s) of cancelled order {}", lines.size(), orderId);
+        }
+    }
+
+    /**
+     * Stock of a product per tracked size: units in the table and units leased to this instance
+     */
+    public List<Map<String, Object>> getStock(Long productId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ProductStock stock : stockRepository.findByProductIdOrderBySize(productId)) {
+            Pool pool = pools.get(new Sku(productId, stock.getSize()));
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", stock.getSize().name());
+            entry.put("unleased", stock.getQuantity());
+            entry.put("leasedHere", pool != null ? pool.units() : 0L);
+            entry.put("updatedAt", stock.getUpdatedAt());
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Set the units on sale for a size, or stop tracking it with a null quantity.
+     * Units this instance had leased are dropped; other instances keep their current lease
+     * and pick up a newly tracked size at their next flush.
+     */
+    public void setStock(Long productId, ProductSize size, Long quantity) {
+        if (quantity != null && quantity < 0) {
+            throw new IllegalArgumentException("Stock quantity cannot be negative");
+        }
+        newTransaction.executeWithoutResult(status -> {
+            ProductStock stock = stockRepository.findForUpdate(productId, size).orElse(null);
+            if (quantity == null) {
+                if (stock != null) {
+                    stockRepository.delete(stock);
+                }
+                return;
+            }
+            if (stock == null) {
+                stock = new ProductStock();
+                stock.setProductId(productId);
+                stock.setSize(size);
+            }
+            stock.setQuantity(quantity);
+            stockRepository.save(stock);
+        });
+        Sku sku = new Sku(productId, size);
+        Pool fresh = quantity != null ? new Pool(sku) : null;
+        Pool previous = fresh != null ? pools.put(sku, fresh) : pools.remove(sku);
+        if (previous != null) {
+            previous.retire();
+        }
+        if (fresh != null) {
+            fresh.requestRefill(0);
+        }
+        logger.info("Stock of product {} {} set to {}", productId, size, quantity != null ? quantity : "untracked");
+    }
+
+    /**
+     * Release expired reservations not tied to a transaction, re-read the tracked sizes, retry sold-out pools (units
+     * may have been returned by other instances) and hand idle pools back to the table
+     */
+    @Scheduled(fixedDelayString = "${stock.flush-interval-ms:5000}")
+    public void maintain() {
+        long now = System.currentTimeMillis();
+        Iterator<Reservation> iterator = reservations.values().iterator();
+        while (iterator.hasNext()) {
+            Reservation reservation = iterator.next();
+            if (!reservation.bound && reservation.expiresAt < now
+                    && reservations.remove(reservation.getId(), reservation)) {
+                logger.warn("Stock reservation {} expired, releasing its units", reservation.getId());
+                reservation.lines.forEach(this::putBack);
+            }
+        }
+        try {
+            syncTracked();
+        } catch (Exception e) {
+            logger.warn("Failed to refresh tracked stock sizes: {}", e.getMessage());
+        }
+        for (Pool pool : pools.values()) {
+            if (pool.exhausted) {
+                pool.requestRefill(0);
+            }
+        }
+        returnUnits(pool -> now - pool.lastUsed > idleReturnMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdown();
+        try {
+            // A lease in flight would otherwise be lost instead of returned below
+            refillExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        returnUnits(pool -> true);
+    }
+
+    /**
+     * Create pools for sizes that gained a stock row and retire those whose row is gone
+     */
+    private void syncTracked() {
+        synchronized (syncLock) {
+            Set<Sku> tracked = new HashSet<>(jdbcTemplate.query("SELECT product_id, size FROM product_stock",
+                    (rs, rowNum) -> new Sku(rs.getLong(1), ProductSize.valueOf(rs.getString(2)))));
+            for (Sku sku : tracked) {
+                Pool pool = new Pool(sku);
+                if (pools.putIfAbsent(sku, pool) == null) {
+                    pool.requestRefill(0);
+                }
+            }
+            pools.values().removeIf(pool -> {
+                if (tracked.contains(pool.sku)) {
+                    return false;
+                }
+                pool.retire();
+                return true;
+            });
+            tracking = true;
+        }
+    }
+
+    private void returnUnits(java.util.function.Predicate<Pool> selector) {
+        Map<Pool, Long> drained = new LinkedHashMap<>();
+        for (Pool pool : pools.values()) {
+            if (selector.test(pool)) {
+                long units = pool.drain();
+                if (units > 0) {
+                    drained.put(pool, units);
+                }
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(drained.size());
+        drained.forEach((pool, units) -> batch.add(new Object[]{units, pool.sku.productId, pool.sku.size.name()}));
+        try {
+            jdbcTemplate.batchUpdate(RETURN_SQL, batch);
+        } catch (Exception e) {
+            logger.error("Failed to return leased stock, keeping it local: {}", e.getMessage());
+            drained.forEach(Pool::put);
+        }
+    }
+
+    /**
+     * Give the units of a reservation that did not go through back to the pool they were taken
+     * from. When that pool has been retired since (stock set again, or no longer tracked) the
+     * units are dropped: the quantity set since then is what is on sale, and a size that is no
+     * longer tracked must not get a pool back.
+     */
+    private void putBack(ReservedLine line) {
+        if (!line.isCounted()) {
+            return;
+        }
+        Pool pool = pools.get(line.sku);
+        if (pool != null && pool.generation == line.generation) {
+            pool.put(line.quantity);
+        } else {
+            logger.debug("Dropped {} reserved unit(s) of product {} {}: its stock was reset",
+                    line.quantity, line.sku.productId, line.sku.size);
+        }
+    }
+
+    /**
+     * Put sold units of a cancelled order back on sale: into this instance's pool when the size
+     * is tracked here, otherwise straight into the table (a no-op for an untracked size)
+     */
+    private void returnSold(Sku sku, int quantity) {
+        Pool pool = pools.get(sku);
+        if (pool != null) {
+            pool.put(quantity);
+        } else {
+            jdbcTemplate.update(RETURN_SQL, quantity, sku.productId, sku.size.name());
+        }
+    }
+
+    /**
+     * Lease up to the wanted units from the table; -1 when the size is not tracked
+     */
+    private long lease(Sku sku, long wanted) {
+        if (sku.size == null) {
+            return -1;
+        }
+        Long leased = newTransaction.execute(status -> stockRepository.findForUpdate(sku.productId, sku.size)
+                .map(stock -> {
+                    long take = Math.min(stock.getQuantity(), Math.max(leaseSize, wanted));
+                    stock.setQuantity(stock.getQuantity() - take);
+                    return take;
+                })
+                .orElse(-1L));
+        return leased != null ? leased : -1;
+    }
+
+    private enum Take { TAKEN, UNTRACKED, INSUFFICIENT, BUSY }
+
+    /**
+     * Units of one size leased to this instance, spread over striped counters
+     */
+    private final class Pool {
+        private final Sku sku;
+        // Distinct for every pool ever created, so units reserved from a retired pool are recognized
+        private final long generation = poolGenerations.incrementAndGet();
+        private final AtomicLong[] stripes;
+        // Units wanted by checkouts waiting for the refill in flight
+        private final AtomicLong shortfall = new AtomicLong();
+        private final AtomicReference<CompletableFuture<Void>> refill = new AtomicReference<>();
+        private volatile boolean tracked = true;
+        // The last lease got fewer units than asked: the table is (nearly) sold out
+        private volatile boolean exhausted;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private Pool(Sku sku) {
+            this.sku = sku;
+            this.stripes = new AtomicLong[stripeCount];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new AtomicLong();
+            }
+        }
+
+        private Take take(int quantity) {
+            lastUsed = System.currentTimeMillis();
+            for (int waits = 0; ; waits++) {
+                if (!tracked) {
+                    return Take.UNTRACKED;
+                }
+                if (takeStriped(quantity) || takeGathered(quantity)) {
+                    if (!exhausted && units() <= leaseSize / 2) {
+                        // Lease the next block before this one runs out
+                        requestRefill(0);
+                    }
+                    return Take.TAKEN;
+                }
+                if (exhausted) {
+                    // The last lease may have landed since the first look; after that, maintain()
+                    // keeps asking the table, so returned units show up within a flush
+                    return takeGathered(quantity) ? Take.TAKEN : Take.INSUFFICIENT;
+                }
+                if (waits == MAX_REFILL_WAITS) {
+                    return Take.INSUFFICIENT;
+                }
+                if (!await(requestRefill(quantity))) {
+                    return Take.BUSY;
+                }
+            }
+        }
+
+        private boolean takeStriped(int quantity) {
+            int home = (int) Thread.currentThread().getId() & (stripes.length - 1);
+            for (int i = 0; i < stripes.length; i++) {
+                AtomicLong stripe = stripes[(home + i) & (stripes.length - 1)];
+                long units = stripe.get();
+                while (units >= quantity) {
+                    if (stripe.compareAndSet(units, units - quantity)) {
+                        return true;
+                    }
+                    units = stripe.get();
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Slow path: gather every stripe, take the units if they add up, spread the rest back out
+         */
+        private synchronized boolean takeGathered(int quantity) {
+            long units = drain();
+            if (units >= quantity) {
+                put(units - quantity);
+                return true;
+            }
+            put(units);
+            return false;
+        }
+
+        /**
+         * Start a lease on the refill thread unless one is in flight; completes when it is done
+         */
+        private CompletableFuture<Void> requestRefill(long wanted) {
+            if (wanted > 0) {
+                shortfall.addAndGet(wanted);
+            }
+            CompletableFuture<Void> created = new CompletableFuture<>();
+            CompletableFuture<Void> running = refill.compareAndExchange(null, created);
+            if (running != null) {
+                return running;
+            }
+            try {
+                refillExecutor.execute(() -> runRefill(created));
+            } catch (RejectedExecutionException e) {
+                refill.set(null);
+                created.complete(null);
+            }
+            return created;
+        }
+
+        private void runRefill(CompletableFuture<Void> done) {
+            try {
+                if (!tracked) {
+                    return;
+                }
+                long wanted = Math.max(leaseSize, shortfall.getAndSet(0));
+                long leased = lease(sku, wanted);
+                if (leased < 0) {
+                    // The stock row is gone: the size is no longer tracked
+                    pools.remove(sku, this);
+                    retire();
+                    return;
+                }
+                // Units before the flag: a checkout that sees the flag also sees the units
+                put(leased);
+                exhausted = leased < wanted;
+            } catch (Exception e) {
+                logger.warn("Failed to lease stock of product {} {}: {}", sku.productId, sku.size, e.getMessage());
+            } finally {
+                refill.set(null);
+                done.complete(null);
+            }
+        }
+
+        private boolean await(CompletableFuture<Void> pending) {
+            try {
+                pending.get(refillWaitMs, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (TimeoutException | ExecutionException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * Stop serving checkouts; leased units are dropped with the pool
+         */
+        private void retire() {
+            tracked = false;
+            drain();
+        }
+
+        private void put(long units) {
+            if (units <= 0) {
+                return;
+            }
+            lastUsed = System.currentTimeMillis();
+            long share = units / stripes.length;
+            stripes[0].addAndGet(units - share * (stripes.length - 1));
+            if (share > 0) {
+                for (int i = 1; i < stripes.length; i++) {
+                    stripes[i].addAndGet(share);
+                }
+            }
+        }
+
+        private long drain() {
+            long units = 0;
+            for (AtomicLong stripe : stripes) {
+                units += stripe.getAndSet(0);
+            }
+            return units;
+        }
+
+        private long units() {
+            long units = 0;
+            for (AtomicLong stripe : stripes) {
+                units += stripe.get();
+            }
+            return units;
+        }
+    }
+
+    private static final class Sku {
+        private final Long productId;
+        private final ProductSize size;
+
+        private Sku(Long productId, ProductSize size) {
+            this.productId = productId;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Sku)) return false;
+            Sku other = (Sku) o;
+            return productId.equals(other.productId) && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, size);
+        }
+    }
+
+    private static final class ReservedLine {
+        private final Sku sku;
+        private final int quantity;
+        // Generation of the pool the units came from, UNTRACKED when there is nothing to give back
+        private final long generation;
+
+        private ReservedLine(Sku sku, int quantity, long generation) {
+            this.sku = sku;
+            this.quantity = quantity;
+            this.generation = generation;
+        }
+
+        private boolean isCounted() {
+            return generation != UNTRACKED;
+        }
+    }
+
+    public static final class Reservation {
+        private final String id;
+        private final List<ReservedLine> lines;
+        private final long expiresAt;
+        private volatile boolean bound;
+
+        private Reservation(String id, List<ReservedLine> lines, long expiresAt) {
+            this.id = id;
+            this.lines = lines;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getId() { return id; }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.silea.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Folds French and Arabic text to a canonical form for matching:
+ * lower case, accents and Arabic diacritics removed, alef/ya/ta-marbuta variants unified.
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Normalize text, replacing every non letter/digit character with a single space
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        // NFD splits accented letters and hamza forms (أ إ آ ؤ ئ) into base letter + combining mark
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == 'ـ') {
+                // Latin accents, Arabic harakat/shadda/hamza marks and tatweel
+                continue;
+            }
+            char folded = fold(c);
+            if (Character.isLetterOrDigit(folded)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                if (folded == 'œ') {
+                    sb.append("oe");
+                } else if (folded == 'æ') {
+                    sb.append("ae");
+                } else {
+                    sb.append(folded);
+                }
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Normalize and split into search tokens (single characters are dropped,
+     * the Arabic definite article is stripped)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return tokens;
+        }
+        for (String token : normalized.split(" ")) {
+            if (token.length() > 3 && token.startsWith("ال")) {
+                token = token.substring(2);
+            }
+            if (token.length() > 1) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static char fold(char c) {
+        switch (c) {
+            case 'ٱ': // alef wasla
+            case 'آ':
+            case 'أ':
+            case 'إ':
+                return 'ا';
+            case 'ى': // alef maksura
+                return 'ي';
+            case 'ة': // ta marbuta
+                return 'ه';
+            case '٠': case '١': case '٢': case '٣': case '٤':
+            case '٥': case '٦': case '٧': case '٨': case '٩':
+                return (char) ('0' + (c - '٠'));
+            default:
+                return c;
+        }
+    }
+}
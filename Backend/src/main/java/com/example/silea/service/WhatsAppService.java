@@ -41,29 +41,36 @@ public class WhatsAppService {
      * Send order confirmation message to customer
      */
     public void sendOrderConfirmation(Order order) {
-        if (!whatsAppConfig.isEnabled()) {
-            logger.debug("WhatsApp is disabled, skipping order confirmation");
-            return;
-        }
-        
         try {
-            String customerPhone = formatPhoneNumber(order.getCustomer().getPhone());
-            String trackingCode = order.getTrackingCode() != null ? order.getTrackingCode() : "N/A";
-            String message = messageTemplates.getOrderConfirmationMessage(
-                order.getCustomer().getName(),
-                order.getOrderNumber(),
-                order.getTotal().doubleValue(),
-                getOrderItemsSummary(order),
-                trackingCode
-            );
-            
-            sendMessage(customerPhone, message);
-            logger.info("Order confirmation sent via WhatsApp for order: {}", order.getOrderNumber());
+            deliverOrderConfirmation(order);
         } catch (Exception e) {
             logger.error("Failed to send order confirmation via WhatsApp for order {}: {}", 
                 order.getOrderNumber(), e.getMessage());
         }
     }
+
+    /**
+     * Send order confirmation message to customer, throwing on failure so the caller can retry
+     */
+    public void deliverOrderConfirmation(Order order) {
+        if (!whatsAppConfig.isEnabled()) {
+            logger.debug("WhatsApp is disabled, skipping order confirmation");
+            return;
+        }
+
+        String customerPhone = formatPhoneNumber(order.getCustomer().getPhone());
+        String trackingCode = order.getTrackingCode() != null ? order.getTrackingCode() : "N/A";
+        String message = messageTemplates.getOrderConfirmationMessage(
+            order.getCustomer().getName(),
+            order.getOrderNumber(),
+            order.getTotal().doubleValue(),
+            getOrderItemsSummary(order),
+            trackingCode
+        );
+
+        sendMessage(customerPhone, message);
+        logger.info("Order confirmation sent via WhatsApp for order: {}", order.getOrderNumber());
+    }
     
     /**
      * Send status update message to customer
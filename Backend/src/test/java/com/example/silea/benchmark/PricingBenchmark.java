@@ -0,0 +1,90 @@
+package com.example.silea.benchmark;
+
+import com.example.silea.entity.Product;
+import com.example.silea.enums.ProductSize;
+import com.example.silea.service.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices an 8-line cart (unit prices, line totals, subtotal, 20% tax) with the former
+ * BigDecimal chain and with centime arithmetic.
+ *
+ * Run after {@code mvn test-compile}:
+ * {@code java -cp target/test-classes:target/classes:<test classpath> com.example.silea.benchmark.PricingBenchmark}
+ * (add {@code -prof gc} through {@code org.openjdk.jmh.Main} for allocation rates)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int LINES = 8;
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.20");
+
+    private Product[] products;
+    private ProductSize[] sizes;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ProductSize[] all = ProductSize.values();
+        products = new Product[LINES];
+        sizes = new ProductSize[LINES];
+        quantities = new int[LINES];
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setPrice(BigDecimal.valueOf(5_000 + random.nextInt(95_000), 2));
+            products[i] = product;
+            sizes[i] = all[random.nextInt(all.length)];
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            BigDecimal unitPrice = products[i].getPrice()
+                    .multiply(sizes[i].getPriceMultiplier())
+                    .setScale(2, RoundingMode.HALF_UP);
+            subtotal = subtotal.add(unitPrice.multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        BigDecimal tax = subtotal.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+        return subtotal.add(tax);
+    }
+
+    @Benchmark
+    public long centimes() {
+        long subtotal = 0;
+        for (int i = 0; i < LINES; i++) {
+            long unitPrice = Money.unitPrice(products[i].getPriceCentimes(), sizes[i]);
+            subtotal += Money.lineTotal(unitPrice, quantities[i]);
+        }
+        return subtotal + Money.percentOf(subtotal, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PricingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
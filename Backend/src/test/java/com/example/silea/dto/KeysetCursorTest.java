@@ -0,0 +1,59 @@
+package com.example.silea.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsTimestampAndId() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000);
+        KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(timestamp, 42L).encode());
+
+        assertEquals(timestamp, decoded.getTimestamp());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void roundTripsWholeSecondsAndLargeIds() {
+        // LocalDateTime.toString drops zero seconds ("2025-01-01T00:00")
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 0, 0);
+        KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(timestamp, Long.MAX_VALUE).encode());
+
+        assertEquals(timestamp, decoded.getTimestamp());
+        assertEquals(Long.MAX_VALUE, decoded.getId());
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new KeysetCursor(LocalDateTime.of(2025, 12, 31, 23, 59, 59, 999_999_999), 1L).encode();
+
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="), token);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertInvalid("not base64!");
+        assertInvalid("");
+        assertInvalid(encodeRaw("2025-01-01T00:00"));
+        assertInvalid(encodeRaw("yesterday|5"));
+        assertInvalid(encodeRaw("2025-01-01T00:00|five"));
+        assertInvalid(encodeRaw("2025-01-01T00:00|"));
+    }
+
+    private static void assertInvalid(String token) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
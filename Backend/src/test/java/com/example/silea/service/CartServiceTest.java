@@ -0,0 +1,86 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Category;
+import com.example.silea.entity.Product;
+import com.example.silea.enums.ProductSize;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartServiceTest {
+
+    private final ShippingRulesEngine shippingRules = new ShippingRulesEngine(
+            new DefaultResourceLoader(), new ObjectMapper(), "classpath:shipping-rules.json");
+    private final PriceResolver priceResolver = mock(PriceResolver.class);
+    private final CartService cartService = new CartService(shippingRules, priceResolver);
+    private PriceQuoteService quotes;
+
+    @BeforeEach
+    void setUp() {
+        when(priceResolver.resolve(any(), any())).thenReturn(5000L);
+        CatalogVersionService catalogVersionService = mock(CatalogVersionService.class);
+        quotes = new PriceQuoteService(catalogVersionService, shippingRules, "test-secret", 30);
+    }
+
+    @Test
+    void honeyInOilSizeIsInvalidAndNotQuoted() {
+        Product honey = product(1L, "Miel de thym", "Miel");
+        CartEvaluation evaluation = cartService.evaluate(
+                List.of(new CartService.CartItem(honey, 1, ProductSize.OIL_5L)), "Tanger");
+
+        assertFalse(evaluation.isValid());
+        assertEquals(List.of("Product 'Miel de thym' is honey. Use sizes: HONEY_1KG, HONEY_500G, or HONEY_250G"),
+                evaluation.getErrors());
+        assertNull(quotes.issue(evaluation, quotes.stamp()));
+    }
+
+    @Test
+    void oilInHoneySizeIsInvalid() {
+        Product oil = product(2L, "Huile d'olive", "Huile");
+        CartEvaluation evaluation = cartService.evaluate(
+                List.of(new CartService.CartItem(oil, 2, ProductSize.HONEY_500G)), "Tanger");
+
+        assertFalse(evaluation.isValid());
+        assertNotNull(cartService.sizeError(oil, ProductSize.HONEY_500G));
+    }
+
+    @Test
+    void matchingSizesAreQuoted() {
+        CartEvaluation evaluation = cartService.evaluate(List.of(
+                new CartService.CartItem(product(1L, "Miel de thym", "Miel"), 1, ProductSize.HONEY_1KG),
+                new CartService.CartItem(product(2L, "Huile d'olive", "Huile"), 1, ProductSize.OIL_2L)), "Tanger");
+
+        assertTrue(evaluation.isValid(), evaluation.getErrors().toString());
+        assertNotNull(quotes.issue(evaluation, quotes.stamp()));
+    }
+
+    @Test
+    void unclassifiedProductsAcceptAnySizeAndMissingSizeIsNotAnError() {
+        Product other = product(3L, "Amlou", "Amlou");
+
+        assertNull(cartService.sizeError(other, ProductSize.OIL_1L));
+        assertNull(cartService.sizeError(product(1L, "Miel", "Miel"), null));
+    }
+
+    private static Product product(long id, String name, String category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(new BigDecimal("50.00"));
+        product.setCategory(new Category(category, null, null));
+        return product;
+    }
+}
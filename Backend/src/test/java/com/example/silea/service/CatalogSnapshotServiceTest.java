@@ -0,0 +1,72 @@
+package com.example.silea.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class CatalogSnapshotServiceTest {
+
+    private static final byte[] PLAIN = {'[', ']'};
+    private static final byte[] GZIP = {31, -117, 8};
+
+    private final CatalogSnapshotService snapshots = new CatalogSnapshotService(
+            mock(ProductService.class), mock(CategoryService.class), new ObjectMapper());
+
+    @Test
+    void gzipAcceptedUnlessWeightedZero() {
+        assertTrue(CatalogSnapshotService.acceptsGzip("gzip"));
+        assertTrue(CatalogSnapshotService.acceptsGzip("deflate, GZIP;q=0.5, br"));
+        assertTrue(CatalogSnapshotService.acceptsGzip("x-gzip"));
+        assertTrue(CatalogSnapshotService.acceptsGzip("br, *"));
+        assertFalse(CatalogSnapshotService.acceptsGzip("gzip;q=0"));
+        assertFalse(CatalogSnapshotService.acceptsGzip("gzip; q=0.000, deflate"));
+        assertFalse(CatalogSnapshotService.acceptsGzip("*;q=0"));
+        // An explicit gzip entry wins over the wildcard, both ways
+        assertFalse(CatalogSnapshotService.acceptsGzip("*, gzip;q=0"));
+        assertTrue(CatalogSnapshotService.acceptsGzip("*;q=0, gzip;q=0.1"));
+        assertFalse(CatalogSnapshotService.acceptsGzip("gzip;q=abc"));
+        assertFalse(CatalogSnapshotService.acceptsGzip("identity, deflate"));
+        // Not a coding named gzip
+        assertFalse(CatalogSnapshotService.acceptsGzip("gzipped"));
+        assertFalse(CatalogSnapshotService.acceptsGzip(null));
+        assertFalse(CatalogSnapshotService.acceptsGzip(""));
+    }
+
+    @Test
+    void gzipVariantGetsItsOwnStrongETag() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setHeader(HttpHeaders.ETAG, "\"cabc\"");
+
+        ResponseEntity<byte[]> entity = snapshots.toResponse(new CatalogSnapshotService.Snapshot(PLAIN, GZIP),
+                "gzip, deflate", response);
+
+        assertArrayEquals(GZIP, entity.getBody());
+        assertEquals("gzip", entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"cabc-gz\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(1, response.getHeaders(HttpHeaders.ETAG).size());
+        assertNull(entity.getHeaders().getETag());
+    }
+
+    @Test
+    void plainVariantKeepsCatalogETag() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setHeader(HttpHeaders.ETAG, "\"cabc\"");
+
+        ResponseEntity<byte[]> entity = snapshots.toResponse(new CatalogSnapshotService.Snapshot(PLAIN, GZIP),
+                "gzip;q=0, identity", response);
+
+        assertArrayEquals(PLAIN, entity.getBody());
+        assertNull(entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"cabc\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, entity.getHeaders().getFirst(HttpHeaders.VARY));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Product;
+import com.example.silea.enums.ProductSize;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void toCentimesRoundsHalfUp() {
+        assertEquals(1200, Money.toCentimes(new BigDecimal("12")));
+        assertEquals(100, Money.toCentimes(new BigDecimal("1.004")));
+        assertEquals(101, Money.toCentimes(new BigDecimal("1.005")));
+        assertEquals(-101, Money.toCentimes(new BigDecimal("-1.005")));
+        assertEquals(-100, Money.toCentimes(new BigDecimal("-1.004")));
+    }
+
+    @Test
+    void toAmountHasScaleTwo() {
+        assertEquals(new BigDecimal("123.45"), Money.toAmount(12345));
+        assertEquals(new BigDecimal("-0.05"), Money.toAmount(-5));
+        assertEquals(new BigDecimal("0.00"), Money.toAmount(0));
+    }
+
+    @Test
+    void percentOfRoundsTiesAwayFromZero() {
+        // 25 * 22% = 5.5 centimes
+        assertEquals(6, Money.percentOf(25, 22));
+        assertEquals(-6, Money.percentOf(-25, 22));
+        // 149 * 1% = 1.49, 150 * 1% = 1.5
+        assertEquals(1, Money.percentOf(149, 1));
+        assertEquals(2, Money.percentOf(150, 1));
+        assertEquals(-1, Money.percentOf(-149, 1));
+        assertEquals(-2, Money.percentOf(-150, 1));
+        assertEquals(0, Money.percentOf(0, 42));
+    }
+
+    @Test
+    void unitPriceMatchesTheBigDecimalChain() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long centimes = random.nextInt(20_000_000) - 10_000_000L;
+            for (ProductSize size : ProductSize.values()) {
+                BigDecimal expected = Money.toAmount(centimes).multiply(size.getPriceMultiplier())
+                        .setScale(2, RoundingMode.HALF_UP);
+                assertEquals(expected, Money.toAmount(Money.unitPrice(centimes, size)),
+                        () -> "centimes " + centimes + ", size " + size);
+            }
+        }
+    }
+
+    @Test
+    void unitPriceWithoutSizeIsTheBasePrice() {
+        assertEquals(12345, Money.unitPrice(12345, null));
+    }
+
+    @Test
+    void lineTotalFailsOnOverflow() {
+        assertEquals(30_000, Money.lineTotal(10_000, 3));
+        assertThrows(ArithmeticException.class, () -> Money.lineTotal(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void productPriceCentimesFollowsThePrice() {
+        Product product = new Product();
+        product.setPrice(new BigDecimal("19.995"));
+        assertEquals(2000, product.getPriceCentimes());
+        product.setPrice(new BigDecimal("-4.125"));
+        assertEquals(-413, product.getPriceCentimes());
+        product.setPrice(new BigDecimal("250"));
+        assertEquals(25000, product.getPriceCentimes());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.silea.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderNumberAllocatorTest {
+
+    private static final int CODE_SPACE = 1 << 20;
+
+    private static OrderNumberAllocator allocator(String key, String... profiles) {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(profiles);
+        return new OrderNumberAllocator(null, null, environment, 20, 2000, key);
+    }
+
+    @Test
+    void permutationIsABijectionOver20Bits() {
+        OrderNumberAllocator allocator = allocator("test-key");
+        BitSet seen = new BitSet(CODE_SPACE);
+        for (int value = 0; value < CODE_SPACE; value++) {
+            int code = allocator.permute(value);
+            assertTrue(code >= 0 && code < CODE_SPACE, "code out of range for " + value);
+            assertFalse(seen.get(code), "duplicate code for " + value);
+            seen.set(code);
+        }
+        assertEquals(CODE_SPACE, seen.cardinality());
+    }
+
+    @Test
+    void trackingCodeDependsOnTheKey() {
+        LocalDate day = LocalDate.of(2026, 3, 14);
+        String first = allocator("key-one").formatTrackingCode(42, day);
+        assertEquals(first, allocator("key-one").formatTrackingCode(42, day));
+        assertNotEquals(first, allocator("key-two").formatTrackingCode(42, day));
+        assertTrue(first.matches("SL-260314-[A-Z2-9]{4}"), first);
+    }
+
+    @Test
+    void missingKeyFailsOutsideDevelopmentProfiles() {
+        assertThrows(IllegalStateException.class, () -> allocator(""));
+        assertThrows(IllegalStateException.class, () -> allocator("", "prod"));
+        assertThrows(IllegalStateException.class, () -> allocator(null, "dev", "prod"));
+    }
+
+    @Test
+    void missingKeyFallsBackInDevelopment() {
+        LocalDate day = LocalDate.of(2026, 3, 14);
+        String code = allocator("", "dev").formatTrackingCode(7, day);
+        assertEquals(code, allocator(" ", "local", "test").formatTrackingCode(7, day));
+    }
+}
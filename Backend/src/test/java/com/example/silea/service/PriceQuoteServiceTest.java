@@ -0,0 +1,192 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Product;
+import com.example.silea.enums.ProductSize;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PriceQuoteServiceTest {
+
+    private static final String SECRET = "test-quote-secret";
+    // Format byte, catalog version, rules version
+    private static final int EXPIRES_AT_OFFSET = 1 + 8 + 8;
+
+    private final CatalogVersionService catalogVersionService = mock(CatalogVersionService.class);
+    private final ShippingRulesEngine shippingRules = mock(ShippingRulesEngine.class);
+    private PriceQuoteService quotes;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogVersionService.currentVersion()).thenReturn(100L);
+        when(shippingRules.getRulesVersion()).thenReturn(7L);
+        quotes = new PriceQuoteService(catalogVersionService, shippingRules, SECRET, 30);
+    }
+
+    @Test
+    void signedQuoteVerifies() {
+        Instant before = Instant.now();
+        PriceQuoteService.IssuedQuote issued = quotes.issue(evaluation("Casablanca"), quotes.stamp());
+
+        assertNotNull(issued);
+        assertTrue(issued.getExpiresAt().isAfter(before.plusSeconds(29 * 60)));
+
+        // City is compared in normalized form
+        PriceQuoteService.Quote quote = quotes.verify(issued.getToken(), "  CASABLANCA ");
+        assertNotNull(quote);
+        assertEquals(3500, quote.getShippingCentimes());
+        assertEquals(2, quote.getLines().size());
+        PriceQuoteService.Line first = quote.getLines().get(0);
+        assertEquals(11L, first.getProductId());
+        assertEquals(ProductSize.OIL_2L, first.getSize());
+        assertEquals(3, first.getQuantity());
+        assertEquals(new BigDecimal("42.10"), first.getUnitPrice());
+        assertEquals(ProductSize.HONEY_250G, quote.getLines().get(1).getSize());
+    }
+
+    @Test
+    void tamperedQuoteIsRejected() {
+        String token = quotes.issue(evaluation("Rabat"), quotes.stamp()).getToken();
+        byte[] payload = payload(token);
+        // Lower the last line's unit price by a centime without re-signing
+        payload[payload.length - 1]--;
+
+        assertNull(quotes.verify(encode(payload) + token.substring(token.indexOf('.')), "Rabat"));
+        // Flip a bit of the tag itself
+        byte[] tag = Base64.getUrlDecoder().decode(token.substring(token.indexOf('.') + 1));
+        tag[tag.length - 1] ^= 1;
+        assertNull(quotes.verify(token.substring(0, token.indexOf('.') + 1) + encode(tag), "Rabat"));
+    }
+
+    @Test
+    void nonCanonicalEncodingIsRejected() {
+        String token = quotes.issue(evaluation("Rabat"), quotes.stamp()).getToken();
+        // 16 tag bytes take 22 characters: the last one only carries 2 bits, the low 4 are padding
+        char last = token.charAt(token.length() - 1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        char sameBits = alphabet.charAt(alphabet.indexOf(last) ^ 1);
+        String variant = token.substring(0, token.length() - 1) + sameBits;
+
+        assertArrayEquals(Base64.getUrlDecoder().decode(token.substring(token.indexOf('.') + 1)),
+                Base64.getUrlDecoder().decode(variant.substring(variant.indexOf('.') + 1)));
+        assertNotNull(quotes.verify(token, "Rabat"));
+        assertNull(quotes.verify(variant, "Rabat"));
+        // Padded form of the same bytes
+        assertNull(quotes.verify(token + "==", "Rabat"));
+    }
+
+    @Test
+    void quoteFromAnotherKeyIsRejected() {
+        PriceQuoteService other = new PriceQuoteService(catalogVersionService, shippingRules, "other-secret", 30);
+        String token = other.issue(evaluation("Rabat"), other.stamp()).getToken();
+
+        assertNull(quotes.verify(token, "Rabat"));
+    }
+
+    @Test
+    void expiredQuoteIsRejected() {
+        String token = quotes.issue(evaluation("Rabat"), quotes.stamp()).getToken();
+        byte[] payload = payload(token);
+        ByteBuffer.wrap(payload).putLong(EXPIRES_AT_OFFSET, Instant.now().getEpochSecond() - 1);
+
+        // Correctly signed, so only the expiry check can reject it
+        assertNull(quotes.verify(resign(payload), "Rabat"));
+
+        ByteBuffer.wrap(payload).putLong(EXPIRES_AT_OFFSET, Instant.now().getEpochSecond() + 60);
+        assertNotNull(quotes.verify(resign(payload), "Rabat"));
+    }
+
+    @Test
+    void quoteForAnotherCityIsRejected() {
+        String token = quotes.issue(evaluation("Rabat"), quotes.stamp()).getToken();
+
+        assertNull(quotes.verify(token, "Fès"));
+    }
+
+    @Test
+    void staleVersionsAreRejected() {
+        String token = quotes.issue(evaluation("Rabat"), quotes.stamp()).getToken();
+
+        when(catalogVersionService.currentVersion()).thenReturn(101L);
+        assertNull(quotes.verify(token, "Rabat"));
+
+        when(catalogVersionService.currentVersion()).thenReturn(100L);
+        when(shippingRules.getRulesVersion()).thenReturn(8L);
+        assertNull(quotes.verify(token, "Rabat"));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertNull(quotes.verify(null, "Rabat"));
+        assertNull(quotes.verify(" ", "Rabat"));
+        assertNull(quotes.verify("no-dot", "Rabat"));
+        assertNull(quotes.verify("!!.??", "Rabat"));
+        // Validly signed but truncated payload
+        assertNull(quotes.verify(resign(new byte[]{1, 0, 0}), "Rabat"));
+    }
+
+    @Test
+    void unorderableCartsAreNotQuoted() {
+        CartEvaluation invalid = new CartEvaluation(lines(), 0, 0, 0, true, false, "Rabat",
+                new BigDecimal("35.00"), false, 0, List.of("Product unavailable"));
+        CartEvaluation undeliverable = new CartEvaluation(lines(), 0, 0, 0, true, false, "Tanger",
+                null, false, 0, List.of());
+        CartEvaluation empty = new CartEvaluation(List.of(), 0, 0, 0, false, false, "Rabat",
+                new BigDecimal("35.00"), false, 0, List.of());
+
+        assertNull(quotes.issue(invalid, quotes.stamp()));
+        assertNull(quotes.issue(undeliverable, quotes.stamp()));
+        assertNull(quotes.issue(empty, quotes.stamp()));
+    }
+
+    private static CartEvaluation evaluation(String city) {
+        return new CartEvaluation(lines(), 0, 0, 0, true, true, city, new BigDecimal("35.00"), false, 0, List.of());
+    }
+
+    private static List<CartEvaluation.Line> lines() {
+        return List.of(
+                new CartEvaluation.Line(product(11L), ProductSize.OIL_2L, 3, 4210, 12630),
+                new CartEvaluation.Line(product(12L), ProductSize.HONEY_250G, 1, 1999, 1999));
+    }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+
+    private static byte[] payload(String token) {
+        return Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.')));
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String resign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return encode(payload) + "." + encode(Arrays.copyOf(mac.doFinal(payload), 16));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Product;
+import com.example.silea.entity.ProductSizePrice;
+import com.example.silea.enums.ProductSize;
+import com.example.silea.event.CatalogChangedEvent;
+import com.example.silea.repository.ProductRepository;
+import com.example.silea.repository.ProductSizePriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PriceResolverTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSizePriceRepository sizePriceRepository = mock(ProductSizePriceRepository.class);
+    private PriceResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new PriceResolver(productRepository, sizePriceRepository, mock(PlatformTransactionManager.class));
+        when(productRepository.findAllPrices()).thenReturn(rows(
+                new Object[]{1L, new BigDecimal("100.00")},
+                new Object[]{3L, new BigDecimal("40.00")}));
+        when(sizePriceRepository.findAllPrices()).thenReturn(rows(
+                new Object[]{1L, ProductSize.OIL_2L, new BigDecimal("45.50")},
+                new Object[]{1L, ProductSize.OIL_1L, null},
+                // Override for a product that no longer exists
+                new Object[]{7L, ProductSize.OIL_2L, new BigDecimal("1.00")}));
+    }
+
+    @Test
+    void overrideWinsOverMultiplier() {
+        assertEquals(4550, resolver.resolve(product(1L, "100.00"), ProductSize.OIL_2L));
+        assertEquals(new BigDecimal("45.50"), resolver.resolvePrice(product(1L, "100.00"), ProductSize.OIL_2L));
+    }
+
+    @Test
+    void sizesWithoutOverrideUseMultiplier() {
+        assertEquals(10000, resolver.resolve(product(1L, "100.00"), ProductSize.OIL_5L));
+        // A null override price falls back to the multiplier
+        assertEquals(2200, resolver.resolve(product(1L, "100.00"), ProductSize.OIL_1L));
+        assertEquals(1680, resolver.resolve(product(3L, "40.00"), ProductSize.OIL_2L));
+    }
+
+    @Test
+    void nullSizeIsBasePrice() {
+        assertEquals(10000, resolver.resolve(product(1L, "100.00"), null));
+        assertEquals(4000, resolver.resolve(product(3L, "40.00"), null));
+    }
+
+    @Test
+    void productsMissingFromTableArePricedFromEntity() {
+        Product fresh = product(2L, "10.00");
+        List<ProductSizePrice> sizePrices = new ArrayList<>();
+        sizePrices.add(new ProductSizePrice(fresh, ProductSize.HONEY_500G, new BigDecimal("6.25")));
+        fresh.setSizePrices(sizePrices);
+
+        assertEquals(625, resolver.resolve(fresh, ProductSize.HONEY_500G));
+        assertEquals(280, resolver.resolve(fresh, ProductSize.HONEY_250G));
+        assertEquals(1000, resolver.resolve(product(null, "10.00"), null));
+        assertEquals(100, resolver.resolve(product(7L, "1.00"), ProductSize.OIL_5L));
+    }
+
+    @Test
+    void singleProductChangeReloadsOnlyThatRow() {
+        resolver.rebuild();
+        when(productRepository.findPriceById(3L)).thenReturn(Optional.of(new BigDecimal("50.00")));
+        when(sizePriceRepository.findPricesByProductIds(any())).thenReturn(rows(
+                new Object[]{3L, ProductSize.OIL_1L, new BigDecimal("9.99")}));
+
+        resolver.onCatalogChanged(new CatalogChangedEvent(3L));
+
+        assertEquals(5000, resolver.resolve(product(3L, "0.00"), null));
+        assertEquals(999, resolver.resolve(product(3L, "0.00"), ProductSize.OIL_1L));
+        assertEquals(2100, resolver.resolve(product(3L, "0.00"), ProductSize.OIL_2L));
+        assertEquals(4550, resolver.resolve(product(1L, "0.00"), ProductSize.OIL_2L));
+    }
+
+    @Test
+    void refreshAddsAndDropsRows() {
+        resolver.rebuild();
+        when(productRepository.findPriceById(9L)).thenReturn(Optional.of(new BigDecimal("20.00")));
+        when(sizePriceRepository.findPricesByProductIds(any())).thenReturn(List.of());
+        resolver.refresh(9L);
+        assertEquals(2000, resolver.resolve(product(9L, "0.00"), null));
+
+        when(productRepository.findPriceById(1L)).thenReturn(Optional.empty());
+        resolver.refresh(1L);
+        // Dropped from the table: the entity price applies again
+        assertEquals(1234, resolver.resolve(product(1L, "12.34"), null));
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return List.of(rows);
+    }
+}
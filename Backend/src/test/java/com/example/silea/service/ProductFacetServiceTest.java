@@ -0,0 +1,69 @@
+package com.example.silea.service;
+
+import com.example.silea.dto.ProductListItem;
+import com.example.silea.enums.ProductSize;
+import com.example.silea.enums.ProductStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetServiceTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private ProductFacetService facetService;
+
+    @BeforeEach
+    void setUp() {
+        ShippingRulesEngine shippingRules = new ShippingRulesEngine(
+                new DefaultResourceLoader(), new ObjectMapper(), "classpath:shipping-rules.json");
+        facetService = new ProductFacetService(productService, shippingRules, List.of(new BigDecimal("100")));
+
+        ProductListItem oil = item(1L, "Huile d'olive", 10L, "Huiles");
+        ProductListItem honey = item(2L, "Miel de thym", 20L, "Miel");
+        ProductListItem soap = item(3L, "Savon", 30L, "Cosmétiques");
+        soap.getSizePrices().add(new ProductListItem.SizePrice(ProductSize.HONEY_250G, new BigDecimal("40")));
+        when(productService.getAllListItems()).thenReturn(List.of(oil, honey, soap));
+    }
+
+    private static ProductListItem item(Long id, String name, Long categoryId, String categoryName) {
+        return new ProductListItem(id, name, null, new BigDecimal("150"), true, null, ProductStatus.ACTIVE, false,
+                categoryId, categoryName, null, null, null, null);
+    }
+
+    private List<Long> ids(Map<String, Collection<String>> selected) {
+        return facetService.filter(selected, null, null, "name", 0, 10).getProducts().stream()
+                .map(ProductListItem::getId)
+                .toList();
+    }
+
+    @Test
+    void multiplierPricedProductsMatchTheSizesOfTheirCategory() {
+        assertEquals(List.of(1L), ids(Map.of(ProductFacetService.FACET_SIZE, List.of("OIL_2L"))));
+        assertEquals(List.of(2L), ids(Map.of(ProductFacetService.FACET_SIZE, List.of("HONEY_500G"))));
+    }
+
+    @Test
+    void unclassifiedProductsMatchOnlyTheirSizePriceRows() {
+        assertEquals(List.of(2L, 3L), ids(Map.of(ProductFacetService.FACET_SIZE, List.of("HONEY_250G"))));
+        assertEquals(List.of(2L), ids(Map.of(ProductFacetService.FACET_SIZE, List.of("HONEY_1KG"))));
+    }
+
+    @Test
+    void sizeCountsIncludeMultiplierPricedProducts() {
+        Map<String, Integer> sizes = facetService.filter(Map.of(), null, null, null, 0, 10)
+                .getFacets().get(ProductFacetService.FACET_SIZE);
+
+        assertEquals(1, sizes.get("OIL_5L"));
+        assertEquals(2, sizes.get("HONEY_250G"));
+    }
+}
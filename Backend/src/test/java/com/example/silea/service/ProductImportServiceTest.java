@@ -0,0 +1,77 @@
+package com.example.silea.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(jdbcTemplate.queryForList("SELECT id FROM categories", Long.class)).thenReturn(List.of(1L));
+        // The products table holds "Huile d'Olive" (id 7); the name lookup matches it whatever the case
+        ResultSet existing = mock(ResultSet.class);
+        when(existing.getString("name")).thenReturn("Huile d'Olive");
+        when(existing.getLong("id")).thenReturn(7L);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(existing);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        importService = new ProductImportService(jdbcTemplate, mock(PlatformTransactionManager.class),
+                new ObjectMapper(), mock(ApplicationEventPublisher.class), 500);
+    }
+
+    private ProductImportService.ImportReport importCsv(String csv) {
+        return importService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nameInAnotherCaseUpdatesTheExistingProduct() {
+        ProductImportService.ImportReport report = importCsv("name,nameAr,price,categoryId\nhuile d'olive,زيت الزيتون,180,1\n");
+
+        assertEquals(1, report.getUpdated());
+        assertEquals(0, report.getInserted());
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE products"), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    void namesDifferingOnlyInCaseAreDuplicatesInOneBatch() {
+        ProductImportService.ImportReport report = importCsv(
+                "name,nameAr,price,categoryId\nHUILE D'OLIVE,زيت الزيتون,180,1\nhuile d'olive,زيت الزيتون,190,1\n");
+
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getFailed());
+        assertEquals(List.of(3), report.getErrors().stream().map(ProductImportService.RowError::getLine).toList());
+    }
+}
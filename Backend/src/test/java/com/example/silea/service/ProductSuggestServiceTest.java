@@ -0,0 +1,105 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Category;
+import com.example.silea.entity.Order;
+import com.example.silea.entity.Product;
+import com.example.silea.enums.OrderStatus;
+import com.example.silea.enums.ProductStatus;
+import com.example.silea.event.OrderChangedEvent;
+import com.example.silea.repository.CategoryRepository;
+import com.example.silea.repository.OrderItemRepository;
+import com.example.silea.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestServiceTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+    private final List<Object[]> sales = new ArrayList<>();
+    private ProductSuggestService suggestService;
+
+    @BeforeEach
+    void setUp() {
+        Category oils = category(1L, "Huiles");
+        Category grocery = category(2L, "Épicerie");
+        when(categoryRepository.findByIsActiveTrue()).thenReturn(List.of(oils, grocery));
+        when(productRepository.findByStatus(ProductStatus.ACTIVE)).thenReturn(List.of(
+                product(10L, "Huile d'olive", oils), product(11L, "Huile d'argan", oils),
+                product(20L, "Huile de table", grocery)));
+        when(orderItemRepository.findBestSellingProducts()).thenAnswer(invocation -> new ArrayList<>(sales));
+        sales.add(new Object[]{20L, 6L});
+
+        suggestService = new ProductSuggestService(productRepository, categoryRepository, orderItemRepository,
+                mock(PlatformTransactionManager.class));
+        suggestService.rebuild();
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static Product product(Long id, String name, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setStatus(ProductStatus.ACTIVE);
+        return product;
+    }
+
+    private static OrderChangedEvent placed() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(OrderStatus.PENDING);
+        return OrderChangedEvent.created(order);
+    }
+
+    private List<String> suggest(String prefix) {
+        return suggestService.suggest(prefix, 10).stream().map(ProductSuggestService.Suggestion::getText).toList();
+    }
+
+    @Test
+    void categoriesRankByTheTotalSalesOfTheirProducts() {
+        assertEquals(List.of("Huile de table", "Huiles", "Huile d'argan", "Huile d'olive"), suggest("huile"));
+
+        sales.add(new Object[]{10L, 4L});
+        sales.add(new Object[]{11L, 3L});
+        suggestService.refreshSales();
+
+        // Huiles: 4 + 3 units, more than any single product
+        assertEquals(List.of("Huiles", "Huile de table", "Huile d'olive", "Huile d'argan"), suggest("huile"));
+    }
+
+    @Test
+    void newOrdersRefreshTheSalesOnTheNextTick() {
+        sales.clear();
+        sales.add(new Object[]{10L, 9L});
+
+        suggestService.refreshSalesIfStale();
+        assertEquals("Huile de table", suggest("huile").get(0));
+
+        suggestService.onOrderChanged(placed());
+        suggestService.onOrderChanged(placed());
+        suggestService.refreshSalesIfStale();
+        suggestService.refreshSalesIfStale();
+
+        assertEquals(List.of("Huiles", "Huile d'olive"), suggest("huile").subList(0, 2));
+        // Once by rebuild, once for both orders
+        verify(orderItemRepository, times(2)).findBestSellingProducts();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Category;
+import com.example.silea.enums.ShippingClass;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the shipped classpath:shipping-rules.json
+ */
+class ShippingRulesEngineTest {
+
+    private static final Set<ShippingClass> OIL = EnumSet.of(ShippingClass.OIL);
+    private static final Set<ShippingClass> HONEY = EnumSet.of(ShippingClass.HONEY);
+    private static final Set<ShippingClass> MIXED = EnumSet.of(ShippingClass.HONEY, ShippingClass.OIL);
+
+    private final ShippingRulesEngine engine = engine("classpath:shipping-rules.json");
+
+    @Test
+    void classifiesCategoriesByKeyword() {
+        assertEquals(ShippingClass.OIL, engine.classify(new Category("Huile d'Olive", null, null)));
+        assertEquals(ShippingClass.OIL, engine.classify(new Category("Olive OIL", null, null)));
+        assertEquals(ShippingClass.OIL, engine.classify(new Category("زيت الزيتون", null, null)));
+        assertEquals(ShippingClass.HONEY, engine.classify(new Category("Miel de thym", null, null)));
+        assertEquals(ShippingClass.HONEY, engine.classify(new Category("عسل", null, null)));
+        assertNull(engine.classify(new Category("Amlou", null, null)));
+        assertNull(engine.classify(new Category()));
+        assertNull(engine.classify(null));
+    }
+
+    @Test
+    void zoneRateDependsOnDominantClass() {
+        assertQuote("30", false, "Tanger", engine.quote("Tanger", 10000, OIL, 2));
+        assertQuote("20", false, "Tanger", engine.quote("Tanger", 10000, HONEY, 0));
+        // Oil comes first in priority order
+        assertQuote("30", false, "Tanger", engine.quote("Tanger", 10000, MIXED, 2));
+        assertQuote("20", false, "Tanger", engine.quote("Tanger", 10000, EnumSet.noneOf(ShippingClass.class), 0));
+    }
+
+    @Test
+    void citiesMatchThroughNormalizedAliases() {
+        assertEquals("Beni Mellal", engine.quote("BÉNI-MELLAL", 10000, OIL, 1).getZone());
+        assertEquals("Casablanca", engine.quote("  casa ", 10000, OIL, 1).getZone());
+        assertEquals("Casablanca", engine.quote("الدار البيضاء", 10000, OIL, 1).getZone());
+        assertEquals("Tanger", engine.quote("طنجه", 10000, OIL, 1).getZone());
+    }
+
+    @Test
+    void zoneWithoutClassRateFallsBackToDefaults() {
+        // Casablanca has no honey rate and no zone default
+        assertQuote("35", false, "Casablanca", engine.quote("Casablanca", 10000, HONEY, 0));
+        assertQuote("35", false, null, engine.quote("Marrakech", 10000, HONEY, 0));
+        assertQuote("35", false, null, engine.quote(null, 10000, OIL, 1));
+    }
+
+    @Test
+    void restrictedClassIsNotDeliveredOutsideZones() {
+        ShippingRulesEngine.Quote quote = engine.quote("Marrakech", 10000, MIXED, 1);
+
+        assertFalse(quote.isAvailable());
+        assertNull(quote.getShipping());
+        // Even when the cart would otherwise ship free
+        assertFalse(engine.quote("Marrakech", 100000, OIL, 20).isAvailable());
+        assertTrue(engine.quote("Marrakech", 10000, HONEY, 0).isAvailable());
+    }
+
+    @Test
+    void freeShippingFromSubtotalOrOilVolume() {
+        assertQuote("20", false, "Tanger", engine.quote("Tanger", 69999, HONEY, 0));
+        assertQuote("0", true, "Tanger", engine.quote("Tanger", 70000, HONEY, 0));
+        assertQuote("0", true, "Casablanca", engine.quote("Casablanca", 1000, OIL, 10));
+        assertQuote("30", false, "Casablanca", engine.quote("Casablanca", 1000, OIL, 9.5));
+        // Oil volume only counts when the cart holds oil
+        assertQuote("35", false, null, engine.quote("Marrakech", 1000, HONEY, 10));
+    }
+
+    @Test
+    void cityRateIgnoresCartContent() {
+        assertEquals(0, new BigDecimal("20").compareTo(engine.cityRate("tangier")));
+        assertEquals(0, new BigDecimal("35").compareTo(engine.cityRate("Casablanca")));
+        assertEquals(0, new BigDecimal("35").compareTo(engine.cityRate("Agadir")));
+    }
+
+    @Test
+    void reloadChangesVersionAndKeepsRulesOnError(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("rules.json");
+        Files.writeString(file, "{\"defaultRate\": 10, \"freeShipping\": {\"subtotal\": 100}, "
+                + "\"zones\": [{\"name\": \"Fès\", \"aliases\": [\"fes\"], \"defaultRate\": 5}]}");
+        ShippingRulesEngine fromFile = engine(file.toUri().toString());
+        long version = fromFile.getRulesVersion();
+        assertEquals("Fès", fromFile.quote("FES", 0, HONEY, 0).getZone());
+
+        Files.writeString(file, "{\"defaultRate\": 10, \"freeShipping\": {\"subtotal\": 100}, \"zones\": ["
+                + "{\"name\": \"Fès\", \"aliases\": [\"meknes\"]}, {\"name\": \"Meknès\"}]}");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, fromFile::reload);
+        assertTrue(e.getMessage().contains("belongs to both"), e.getMessage());
+        assertEquals(version, fromFile.getRulesVersion());
+        assertEquals(0, new BigDecimal("5").compareTo(fromFile.cityRate("fes")));
+
+        Files.writeString(file, "{\"defaultRate\": 12, \"freeShipping\": {\"subtotal\": 100}}");
+        fromFile.reload();
+        assertNotEquals(version, fromFile.getRulesVersion());
+        assertEquals(0, new BigDecimal("12").compareTo(fromFile.cityRate("fes")));
+    }
+
+    @Test
+    void invalidRulesFailAtStartup(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("rules.json");
+        Files.writeString(file, "{\"defaultRate\": -1, \"freeShipping\": {\"subtotal\": 100}}");
+        assertThrows(IllegalArgumentException.class, () -> engine(file.toUri().toString()));
+
+        Files.writeString(file, "{\"defaultRate\": 10, \"freeShipping\": {\"subtotal\": 100}, "
+                + "\"classes\": {\"WINE\": {\"keywords\": [\"vin\"]}}}");
+        assertThrows(IllegalArgumentException.class, () -> engine(file.toUri().toString()));
+    }
+
+    private static ShippingRulesEngine engine(String location) {
+        return new ShippingRulesEngine(new DefaultResourceLoader(), new ObjectMapper(), location);
+    }
+
+    private static void assertQuote(String shipping, boolean free, String zone, ShippingRulesEngine.Quote quote) {
+        assertEquals(0, new BigDecimal(shipping).compareTo(quote.getShipping()),
+                () -> "expected " + shipping + " but was " + quote.getShipping());
+        assertEquals(free, quote.isFreeShipping());
+        assertEquals(zone, quote.getZone());
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.silea.service;
+
+import com.example.silea.entity.Order;
+import com.example.silea.entity.OrderItem;
+import com.example.silea.entity.Product;
+import com.example.silea.entity.ProductStock;
+import com.example.silea.enums.OrderStatus;
+import com.example.silea.enums.ProductSize;
+import com.example.silea.event.OrderChangedEvent;
+import com.example.silea.repository.ProductStockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockServiceTest {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int LEASE_SIZE = 5;
+
+    // The product_stock rows of PRODUCT_ID
+    private final Map<ProductSize, ProductStock> table = new ConcurrentHashMap<>();
+    // Lines the next cancellation reads back as reserved
+    private final List<Object[]> reservedRows = new ArrayList<>();
+    private final ProductStockRepository stockRepository = mock(ProductStockRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private StockService stockService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        when(stockRepository.findForUpdate(eq(PRODUCT_ID), any()))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<ProductSize>getArgument(1))));
+        when(stockRepository.findByProductIdOrderBySize(PRODUCT_ID))
+                .thenAnswer(invocation -> new ArrayList<>(table.values()));
+        when(stockRepository.save(any())).thenAnswer(invocation -> {
+            ProductStock stock = invocation.getArgument(0);
+            table.put(stock.getSize(), stock);
+            return stock;
+        });
+        doAnswer(invocation -> table.remove(invocation.<ProductStock>getArgument(0).getSize()))
+                .when(stockRepository).delete(any());
+
+        when(jdbcTemplate.query(startsWith("SELECT product_id, size FROM product_stock"), any(RowMapper.class)))
+                .thenAnswer(invocation -> {
+                    RowMapper<Object> mapper = invocation.getArgument(1);
+                    List<Object> rows = new ArrayList<>();
+                    for (ProductSize size : table.keySet()) {
+                        rows.add(mapper.mapRow(row(PRODUCT_ID, size, 0), rows.size()));
+                    }
+                    return rows;
+                });
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] line : reservedRows) {
+                handler.processRow(row((Long) line[0], (ProductSize) line[1], (Integer) line[2]));
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT product_id, size, quantity FROM order_items"),
+                any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(invocation -> {
+            reservedRows.clear();
+            return 1;
+        }).when(jdbcTemplate).update(startsWith("UPDATE order_items"), any(Object[].class));
+
+        stockService = new StockService(stockRepository, jdbcTemplate, mock(PlatformTransactionManager.class),
+                LEASE_SIZE, 4, 900, 30000, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockService.shutdown();
+    }
+
+    private static ResultSet row(long productId, ProductSize size, int quantity) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(productId);
+        when(rs.getString(2)).thenReturn(size.name());
+        when(rs.getInt(3)).thenReturn(quantity);
+        return rs;
+    }
+
+    private static OrderItem item(ProductSize size, int quantity) {
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setName("Huile d'olive");
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setSize(size);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private StockService.Reservation reserve(ProductSize size, int quantity) {
+        return stockService.reserve(List.of(item(size, quantity)));
+    }
+
+    private long unitsLeft(ProductSize size) {
+        return stockService.getStock(PRODUCT_ID).stream()
+                .filter(entry -> size.name().equals(entry.get("size")))
+                .mapToLong(entry -> ((Number) entry.get("unleased")).longValue()
+                        + ((Number) entry.get("leasedHere")).longValue())
+                .sum();
+    }
+
+    private static OrderChangedEvent cancelled(long orderId) {
+        Order order = new Order();
+        order.setId(orderId);
+        order.setStatus(OrderStatus.CANCELLED);
+        return OrderChangedEvent.statusChanged(order, OrderStatus.PENDING);
+    }
+
+    @Test
+    void reservesUntilTheStockRunsOut() {
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, 3L);
+
+        OrderItem item = item(ProductSize.OIL_1L, 3);
+        stockService.confirm(stockService.reserve(List.of(item)).getId());
+
+        assertTrue(item.getStockReserved());
+        assertThrows(IllegalArgumentException.class, () -> reserve(ProductSize.OIL_1L, 1));
+        assertEquals(0, unitsLeft(ProductSize.OIL_1L));
+    }
+
+    @Test
+    void untrackedSizesAlwaysReserve() {
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, 1L);
+
+        OrderItem item = item(ProductSize.HONEY_1KG, 1000);
+        stockService.reserve(List.of(item));
+
+        assertFalse(item.getStockReserved());
+    }
+
+    @Test
+    void releaseGivesTheUnitsBack() {
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, 3L);
+
+        stockService.release(reserve(ProductSize.OIL_1L, 3).getId());
+
+        stockService.confirm(reserve(ProductSize.OIL_1L, 3).getId());
+        assertThrows(IllegalArgumentException.class, () -> reserve(ProductSize.OIL_1L, 1));
+    }
+
+    @Test
+    void failedLineRollsBackTheEarlierLines() {
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, 2L);
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_2L, 5L);
+
+        assertThrows(IllegalArgumentException.class, () -> stockService.reserve(
+                List.of(item(ProductSize.OIL_1L, 2), item(ProductSize.OIL_2L, 6))));
+
+        assertEquals(2, unitsLeft(ProductSize.OIL_1L));
+        assertEquals(5, unitsLeft(ProductSize.OIL_2L));
+        stockService.reserve(List.of(item(ProductSize.OIL_1L, 2), item(ProductSize.OIL_2L, 5)));
+    }
+
+    @Test
+    void releaseAfterStockWasSetAgainDropsTheUnits() {
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, 3L);
+        StockService.Reservation reservation = reserve(ProductSize.OIL_1L, 3);
+
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, 1L);
+        stockService.release(reservation.getId());
+
+        assertThrows(IllegalArgumentException.class, () -> reserve(ProductSize.OIL_1L, 2));
+        stockService.confirm(reserve(ProductSize.OIL_1L, 1).getId());
+        assertThrows(IllegalArgumentException.class, () -> reserve(ProductSize.OIL_1L, 1));
+    }
+
+    @Test
+    void releaseAfterTrackingStoppedCreatesNoPool() {
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, 3L);
+        StockService.Reservation reservation = reserve(ProductSize.OIL_1L, 3);
+
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, null);
+        stockService.release(reservation.getId());
+
+        // Untracked again: reserving neither fails nor counts
+        OrderItem item = item(ProductSize.OIL_1L, 10);
+        stockService.reserve(List.of(item));
+        assertFalse(item.getStockReserved());
+    }
+
+    @Test
+    void cancellationRestocksOnce() {
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, 3L);
+        stockService.confirm(reserve(ProductSize.OIL_1L, 3).getId());
+        reservedRows.add(new Object[]{PRODUCT_ID, ProductSize.OIL_1L, 3});
+
+        stockService.onOrderChanged(cancelled(7L));
+        stockService.onOrderChanged(cancelled(7L));
+
+        assertEquals(3, unitsLeft(ProductSize.OIL_1L));
+        verify(jdbcTemplate, times(1)).update(startsWith("UPDATE order_items"), any(Object[].class));
+        stockService.confirm(reserve(ProductSize.OIL_1L, 3).getId());
+    }
+
+    @Test
+    void cancellationOfAnUntrackedSizeGoesToTheTable() {
+        reservedRows.add(new Object[]{PRODUCT_ID, ProductSize.HONEY_500G, 2});
+
+        stockService.onOrderChanged(cancelled(8L));
+
+        verify(jdbcTemplate).update(startsWith("UPDATE product_stock"), eq(2), eq(PRODUCT_ID), eq("HONEY_500G"));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        long stock = 50;
+        stockService.setStock(PRODUCT_ID, ProductSize.OIL_1L, stock);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 8; i++) {
+                        try {
+                            stockService.confirm(reserve(ProductSize.OIL_1L, 1).getId());
+                            sold.incrementAndGet();
+                        } catch (IllegalArgumentException | IllegalStateException e) {
+                            // Sold out or refill busy
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertTrue(sold.get() <= stock, "oversold: " + sold.get());
+        // Whatever the burst left over can still be sold, one unit at a time
+        while (true) {
+            try {
+                stockService.confirm(reserve(ProductSize.OIL_1L, 1).getId());
+                sold.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+        }
+        assertEquals(stock, sold.get());
+        assertEquals(0, unitsLeft(ProductSize.OIL_1L));
+    }
+}
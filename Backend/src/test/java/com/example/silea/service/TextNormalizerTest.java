@@ -0,0 +1,68 @@
+package com.example.silea.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextNormalizerTest {
+
+    @Test
+    void foldsCaseAndLatinAccents() {
+        assertEquals("miel de thym", TextNormalizer.normalize("Miel de THYM"));
+        assertEquals("creme brulee", TextNormalizer.normalize("Crème Brûlée"));
+        assertEquals("beni mellal", TextNormalizer.normalize("BÉNI MELLAL"));
+        assertEquals("oeuf et aegle", TextNormalizer.normalize("Œuf et Ægle"));
+    }
+
+    @Test
+    void collapsesSeparatorsToSingleSpaces() {
+        assertEquals("huile d olive 5l", TextNormalizer.normalize("  Huile d'olive -- (5L)!  "));
+        assertEquals("a b", TextNormalizer.normalize("a\t\n b"));
+        assertEquals("", TextNormalizer.normalize(" ,.;- "));
+    }
+
+    @Test
+    void nullAndEmptyGiveEmptyString() {
+        assertEquals("", TextNormalizer.normalize(null));
+        assertEquals("", TextNormalizer.normalize(""));
+        assertEquals(List.of(), TextNormalizer.tokenize(null));
+        assertEquals(List.of(), TextNormalizer.tokenize("   "));
+    }
+
+    @Test
+    void removesArabicDiacriticsAndTatweel() {
+        // Fatha/shadda/sukun and tatweel
+        assertEquals("عسل", TextNormalizer.normalize("عَسَل"));
+        assertEquals("زيت", TextNormalizer.normalize("زَيْـت"));
+        assertEquals("محمد", TextNormalizer.normalize("مُحَمَّد"));
+    }
+
+    @Test
+    void unifiesArabicLetterVariants() {
+        // Hamza forms and alef wasla become a bare alef
+        assertEquals("احمد", TextNormalizer.normalize("أحمد"));
+        assertEquals("اسلام", TextNormalizer.normalize("إسلام"));
+        assertEquals("امن", TextNormalizer.normalize("آمن"));
+        assertEquals("الله", TextNormalizer.normalize("ٱلله"));
+        // Alef maksura and ta marbuta
+        assertEquals("مصطفي", TextNormalizer.normalize("مصطفى"));
+        assertEquals("طنجه", TextNormalizer.normalize("طنجة"));
+    }
+
+    @Test
+    void convertsArabicIndicDigits() {
+        assertEquals("500g", TextNormalizer.normalize("٥٠٠g"));
+        assertEquals("2025", TextNormalizer.normalize("٢٠٢٥"));
+    }
+
+    @Test
+    void tokenizeStripsArticleAndSingleCharacters() {
+        assertEquals(List.of("huile", "olive", "5l"), TextNormalizer.tokenize("Huile d'Olive 5L"));
+        assertEquals(List.of("زيتون", "بلدي"), TextNormalizer.tokenize("الزيتون البلدي"));
+        // Too short to strip: the article would leave one or two letters
+        assertEquals(List.of("الف"), TextNormalizer.tokenize("الف"));
+        assertEquals(List.of("عسل", "حر"), TextNormalizer.tokenize("عسل حر و"));
+    }
+}